@@ -0,0 +1,85 @@
+package oscar.benchmarks;
+
+import oscar.controller.Controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Controller configurations shared by the benchmarks. Noise site ids used by the benchmarks must be lower than
+ * {@link #SITE_COUNT}.
+ */
+final class ControllerModes {
+  static final int SITE_COUNT = 64;
+
+  private static final String[] ALL_CATEGORIES = {"-nc", "sb", "tb", "lb", "m", "svb"};
+
+  /**
+   * Start the controller in one of the benchmark modes:
+   * disabled (all locations active, noise disabled), skipped (no active locations),
+   * enabled (all locations active, zero noise probability), yield (a single yield per call),
+   * park and spin (a 1us park or busy-spin per call) and sleep0 (a zero length sleep per call).
+   *
+   * @param mode    controller mode
+   * @param tracing true to trace every call to a file
+   */
+  static void start(String mode, boolean tracing) {
+    List<String> args = new ArrayList<>(List.of("-q"));
+
+    switch (mode) {
+      case "disabled":
+        args.addAll(Arrays.asList(ALL_CATEGORIES));
+        args.add("-d");
+        break;
+      case "skipped":
+        break;
+      case "enabled":
+        args.addAll(Arrays.asList(ALL_CATEGORIES));
+        args.addAll(List.of("-p", "0", "-m", "0", "-M", "1"));
+        break;
+      case "yield":
+        args.addAll(Arrays.asList(ALL_CATEGORIES));
+        args.addAll(List.of("-y", "-iu", "ns", "-m", "1", "-M", "1"));
+        break;
+      case "park":
+      case "spin":
+        args.addAll(Arrays.asList(ALL_CATEGORIES));
+        args.addAll(List.of("-ne", mode, "-iu", "us", "-m", "1", "-M", "1"));
+        break;
+      case "sleep0":
+        // A zero intensity range disables noise globally, so zero length sleeps are set per site
+        args.addAll(Arrays.asList(ALL_CATEGORIES));
+        args.addAll(List.of("-c", writeSleep0Config().toString()));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown controller mode '" + mode + "'.");
+    }
+
+    if (tracing)
+      args.add("-fo");
+
+    Controller.start(args.toArray(new String[0]));
+  }
+
+  private static Path writeSleep0Config() {
+    StringBuilder config = new StringBuilder("min_noise_intensity=0\nmax_noise_intensity=1\n");
+
+    for (int siteID = 0; siteID < SITE_COUNT; siteID++)
+      config.append("site.").append(siteID).append(".max_noise_intensity=0\n");
+
+    try {
+      Path file = Files.createTempFile("oscar_sleep0", ".properties");
+      file.toFile().deleteOnExit();
+      Files.write(file, config.toString().getBytes(StandardCharsets.UTF_8));
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write sleep0 config file.", e);
+    }
+  }
+}
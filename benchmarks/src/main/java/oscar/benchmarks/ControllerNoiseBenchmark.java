@@ -0,0 +1,33 @@
+package oscar.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import oscar.controller.Controller;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a single Controller.noise call in each controller mode, with tracing on and off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerNoiseBenchmark {
+  @Param({"disabled", "skipped", "enabled", "yield", "park", "spin", "sleep0"})
+  public String mode;
+
+  @Param({"false", "true"})
+  public boolean tracing;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ControllerModes.start(mode, tracing);
+  }
+
+  @Benchmark
+  public void noise() {
+    Controller.noise(0);
+  }
+}
@@ -0,0 +1,110 @@
+package oscar.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import oscar.controller.util.output.BinaryFileOutput;
+import oscar.controller.util.output.ConsoleOutput;
+import oscar.controller.util.output.ControllerOutput;
+import oscar.controller.util.output.LazyFileOutput;
+import oscar.controller.util.output.MappedFileOutput;
+import oscar.controller.util.output.RegularFileOutput;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the write throughput of every controller output. Outputs are recreated for each iteration, so buffered
+ * outputs do not accumulate events across iterations and their final flush is not measured.
+ * Run through {@link #main(String[])} to get a scaling report for 1 to N threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ControllerOutputBenchmark {
+  @State(Scope.Benchmark)
+  public static class OutputState {
+    @Param({"console", "file", "lazy", "binary", "mapped"})
+    public String output;
+
+    public ControllerOutput controllerOutput;
+
+    private PrintStream originalOut;
+    private File consoleFile;
+
+    @Setup(Level.Trial)
+    public void setupConsole() throws IOException {
+      // Console output is redirected to a file, as if the instrumented program's output was piped by a harness
+      if (!output.equals("console"))
+        return;
+
+      originalOut = System.out;
+      consoleFile = Files.createTempFile("oscar_console", ".txt").toFile();
+      consoleFile.deleteOnExit();
+      System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(consoleFile)), false));
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      switch (output) {
+        case "console":
+          controllerOutput = new ConsoleOutput();
+          break;
+        case "file":
+          controllerOutput = new RegularFileOutput();
+          break;
+        case "lazy":
+          controllerOutput = new LazyFileOutput();
+          break;
+        case "binary":
+          controllerOutput = new BinaryFileOutput();
+          break;
+        case "mapped":
+          controllerOutput = new MappedFileOutput();
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown output '" + output + "'.");
+      }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      controllerOutput.terminate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownConsole() {
+      if (originalOut == null)
+        return;
+
+      System.out.close();
+      System.setOut(originalOut);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadSite {
+    private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+    public long threadID;
+    public int siteID;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      threadID = Thread.currentThread().getId();
+      siteID = threadCount.getAndIncrement() % ControllerModes.SITE_COUNT;
+    }
+  }
+
+  @Benchmark
+  public void write(OutputState state, ThreadSite site) {
+    state.controllerOutput.write(site.threadID, site.siteID, false);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    ScalingRunner.run(ControllerOutputBenchmark.class.getSimpleName() + ".write", "output", "console", "file", "lazy", "binary", "mapped");
+  }
+}
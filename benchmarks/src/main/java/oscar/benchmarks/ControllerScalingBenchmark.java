@@ -0,0 +1,51 @@
+package oscar.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import oscar.controller.Controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how Controller.noise throughput scales with the number of calling threads, on paths that never sleep.
+ * Run through {@link #main(String[])} to get a scaling report for 1 to N threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerScalingBenchmark {
+  @State(Scope.Benchmark)
+  public static class ControllerState {
+    @Param({"skipped", "enabled"})
+    public String mode;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      ControllerModes.start(mode, false);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadSite {
+    private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+    public int siteID;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      siteID = threadCount.getAndIncrement() % ControllerModes.SITE_COUNT;
+    }
+  }
+
+  @Benchmark
+  public void noise(ControllerState controller, ThreadSite site) {
+    Controller.noise(site.siteID);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    ScalingRunner.run(ControllerScalingBenchmark.class.getSimpleName() + ".noise", "mode", "skipped", "enabled");
+  }
+}
@@ -0,0 +1,83 @@
+package oscar.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import oscar.controller.Controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compares small critical section kernels against their instrumented forms, with noise calls placed where
+ * SynchronizedBlockNoiser (before monitor enter, after monitor exit) and ReentrantLockNoiser (before lock,
+ * after unlock) place them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentedKernelBenchmark {
+  private static final int BEFORE_SYNC_BLOCK_SITE = 0;
+  private static final int AFTER_SYNC_BLOCK_SITE = 1;
+  private static final int BEFORE_REENTRANT_LOCK_LOCK_SITE = 2;
+  private static final int AFTER_REENTRANT_LOCK_UNLOCK_SITE = 3;
+
+  @Param({"skipped", "enabled", "yield"})
+  public String mode;
+
+  private final Object monitor = new Object();
+  private final ReentrantLock lock = new ReentrantLock();
+  private long counter;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ControllerModes.start(mode, false);
+  }
+
+  @Benchmark
+  public long synchronizedBlock() {
+    synchronized (monitor) {
+      return ++counter;
+    }
+  }
+
+  @Benchmark
+  public long synchronizedBlockInstrumented() {
+    long value;
+
+    Controller.noise(BEFORE_SYNC_BLOCK_SITE);
+    synchronized (monitor) {
+      value = ++counter;
+    }
+    Controller.noise(AFTER_SYNC_BLOCK_SITE);
+
+    return value;
+  }
+
+  @Benchmark
+  public long reentrantLock() {
+    lock.lock();
+    try {
+      return ++counter;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Benchmark
+  public long reentrantLockInstrumented() {
+    long value;
+
+    Controller.noise(BEFORE_REENTRANT_LOCK_LOCK_SITE);
+    lock.lock();
+    try {
+      value = ++counter;
+    } finally {
+      lock.unlock();
+    }
+    Controller.noise(AFTER_REENTRANT_LOCK_UNLOCK_SITE);
+
+    return value;
+  }
+}
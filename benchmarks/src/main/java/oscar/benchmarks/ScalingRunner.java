@@ -0,0 +1,50 @@
+package oscar.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a benchmark from 1 thread up to the number of available processors and reports the scaling efficiency,
+ * i.e. the throughput at N threads divided by N times the single thread throughput.
+ */
+final class ScalingRunner {
+  static void run(String benchmark, String param, String... values) throws RunnerException {
+    int maxThreads = Runtime.getRuntime().availableProcessors();
+    List<Integer> threadCounts = new ArrayList<>();
+
+    for (int threads = 1; threads < maxThreads; threads *= 2)
+      threadCounts.add(threads);
+    threadCounts.add(maxThreads);
+
+    List<String> report = new ArrayList<>();
+    report.add(String.format("%-10s\t%-10s\t%-20s\t%-10s", param, "Threads", "Ops/s", "Efficiency"));
+
+    for (String value : values) {
+      double singleThreadScore = 0;
+
+      for (int threads : threadCounts) {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(benchmark)
+            .param(param, value)
+            .threads(threads);
+
+        RunResult result = new Runner(options.build()).runSingle();
+        double score = result.getPrimaryResult().getScore();
+
+        if (threads == 1)
+          singleThreadScore = score;
+
+        report.add(String.format("%-10s\t%-10d\t%-20.0f\t%-10.2f", value, threads, score, score / (threads * singleThreadScore)));
+      }
+    }
+
+    System.out.println();
+    report.forEach(System.out::println);
+  }
+}
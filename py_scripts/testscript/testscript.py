@@ -155,8 +155,11 @@ if not argv.disable_coverage:
 
         interleaving = ''
 
-        # Get all thread ids for ordering
+        # Get all thread ids for ordering, skipping header comments
         for line in content:
+            if line.startswith('#'):
+                continue
+
             thread_id = int(line.split(' ')[0].strip())
             if thread_id not in thread_ids:
                 thread_ids.append(thread_id)
@@ -174,6 +177,9 @@ if not argv.disable_coverage:
         content = open(file, 'r')
 
         for line in content:
+            if line.startswith('#'):
+                continue
+
             thread_id = mapped_thread_ids[int(line.split(' ')[0].strip())]
 
             # Make the interleaving id value start from 0
@@ -1,130 +1,450 @@
 package oscar.controller;
 
+import oscar.controller.noise.NoiseBackoffScope;
 import oscar.controller.noise.NoiseLocation;
+import oscar.controller.noise.NoiseSite;
+import oscar.controller.noise.NoiseSiteManifest;
+import oscar.controller.noise.effect.NoiseEffect;
+import oscar.controller.scheduler.SchedulingStrategy;
 import oscar.controller.util.ControllerOptions;
+import oscar.controller.util.VirtualThreads;
+import oscar.controller.util.output.ControllerOutput;
 import oscar.utils.logger.LoggerFactory;
 
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 public final class Controller {
   private static final Logger logger = LoggerFactory.getInstance(Controller.class);
-  private static final Random rand = new Random();
 
-  private static ControllerOptions options;
-  private static AtomicInteger noiseStatementCallCount = new AtomicInteger(0);
-  private static AtomicInteger noiseTriggeredCount = new AtomicInteger(0);
+  private static NoiseSite[] sites = new NoiseSite[0];
+  private static NoiseLocation[] siteLocations = new NoiseLocation[0];
+  private static boolean[] monitorSites = new boolean[0];
+  private static final boolean pinningMonitors = VirtualThreads.pinsInMonitors();
+  private static NoiseActivation activation;
+  private static NoiseDecisions decisions;
+  private static DecisionRecorder recorder;
+  private static DecisionReplay replay;
+  private static SiteStatistics statistics;
+  private static NoiseGovernor governor;
+  private static HotSiteBackoff backoff;
+  private static CoverageFeedback coverageFeedback;
+  private static InterleavingCoverage interleavingCoverage;
+  private static SiteTransitions transitions;
+  private static PctPriorities pct;
+  private static CooperativeScheduler scheduler;
+  private static NoiseRendezvous rendezvous;
+  private static Watchdog watchdog;
+
+  // Published configuration, read once per noise call. Null until the controller is started.
+  private static volatile ControllerSnapshot snapshot;
+  private static final ArrayList<ControllerOutput> retiredOutputs = new ArrayList<>();
+
+  private static final LongAdder noiseStatementCallCount = new LongAdder();
+  private static final LongAdder noiseTriggeredCount = new LongAdder();
+  private static final LongAdder noiseBudgetSkipCount = new LongAdder();
 
   public static String[] start(String[] argv) {
     logger.info("Starting OSCAR noising controller.");
     logger.info("Parsing arguments.");
 
-    options = ControllerOptions.parse(argv);
+    ControllerOptions options = ControllerOptions.parse(argv);
 
     logger.info("Arguments parsed.");
 
+    // Replayed runs reuse the recorded seed, so the modes derived from it behave as recorded as well
+    if (options.ReplayFile != null) {
+      replay = new DecisionReplay(options.ReplayFile);
+      options.Seed = replay.getSeed();
+      logger.info("Replaying " + replay.size() + " noise decisions from '" + options.ReplayFile + "'.");
+    }
+
+    // Load site locations from the manifest and build the per-site policy table
+    sites = NoiseSiteManifest.load();
+    logger.info("Loaded " + sites.length + " noise sites from manifest.");
+
+    siteLocations = new NoiseLocation[sites.length];
+    monitorSites = new boolean[sites.length];
+    for (NoiseSite site : sites)
+      if (site != null) {
+        siteLocations[site.getId()] = site.getLocation();
+        monitorSites[site.getId()] = site.isInMonitor();
+      }
+
+    ControllerSnapshot initialSnapshot = new ControllerSnapshot(options, sites);
+
+    // Threads created by the main thread from now on derive their logical ids from it
+    ThreadLineage.current();
+    decisions = new NoiseDecisions(options.Seed, options.IntensityDistribution, options.IntensityDistributionParameter);
+    logger.info("Noise seed " + options.Seed + ".");
+
+    ThreadFilter filter = new ThreadFilter(options.ThreadNamePattern, options.ThreadGroupName, options.ThreadOrdinals,
+                                           options.RandomThreads, options.ExpectedThreads, options.Seed);
+    if (filter.isFiltering())
+      ControllerThreadState.setFilter(filter);
+
+    if (options.RecordDecisions)
+      recorder = new DecisionRecorder(options.Seed);
+
+    if (initialSnapshot.output != null)
+      initialSnapshot.output.writeHeader(options.Seed);
+
+    if (options.SiteStatistics)
+      statistics = new SiteStatistics(initialSnapshot.policy.size() + 1);
+
+    if (options.GlobalNoiseBudget > 0 || options.ThreadNoiseBudget > 0)
+      governor = new NoiseGovernor(options.NoiseIntensityUnit.toNanos(options.GlobalNoiseBudget),
+                                   options.NoiseIntensityUnit.toNanos(options.ThreadNoiseBudget));
+
+    if (options.BackoffScope != NoiseBackoffScope.NONE)
+      backoff = new HotSiteBackoff(options.BackoffScope, options.BackoffThreshold, options.BackoffWindow,
+                                   initialSnapshot.policy.size() + 1);
+
+    if (options.CoverageFeedback)
+      coverageFeedback = new CoverageFeedback(initialSnapshot.policy.size() + 1);
+
+    if (options.InterleavingCoverage)
+      interleavingCoverage = new InterleavingCoverage();
+
+    if (coverageFeedback != null || interleavingCoverage != null)
+      transitions = new SiteTransitions();
+
+    if (options.PctDepth > 0) {
+      pct = new PctPriorities(options.Seed, options.PctDepth, options.PctSteps);
+      logger.info("PCT mode with depth " + options.PctDepth + ", seed " + options.Seed + " and change points " +
+                      Arrays.toString(pct.getChangePoints()) + ".");
+    }
+
+    if (options.Scheduler != null) {
+      scheduler = new CooperativeScheduler(
+          SchedulingStrategy.fromString(options.Scheduler, options.Seed, options.PreemptionBound),
+          options.SchedulerTimeout
+      );
+      logger.info("Cooperative scheduler with strategy '" + options.Scheduler + "' and seed " + options.Seed + ".");
+    }
+
+    if (options.RendezvousParties > 0) {
+      rendezvous = new NoiseRendezvous(options.RendezvousParties, options.RendezvousTimeout);
+      logger.info("Rendezvous mode releasing " + options.RendezvousParties + " threads together, or after " +
+                      options.RendezvousTimeout + "us.");
+    }
+
+    activation = new NoiseActivation(options.ActivationDelay, options.ActivationSite, options.ActivationSiteHits,
+                                     options.ManualActivation, options.ActivationRequiresAll, options.ActiveDuration);
+
+    if (options.Watchdog) {
+      watchdog = new Watchdog(options.WatchdogStallTimeout, noiseStatementCallCount::sum);
+      logger.info("Watchdog aborting with exit code " + Watchdog.EXIT_CODE + " on deadlocks" +
+                      (options.WatchdogStallTimeout > 0 ? " and after " + options.WatchdogStallTimeout +
+                                                              "ms without threads reaching new sites." : "."));
+    }
+
+    snapshot = initialSnapshot;
+
+    if (watchdog != null)
+      watchdog.start();
+
+    if (options.Jmx)
+      NoiseControl.register();
+
     return options.InjectedArgs.split(" ");
   }
 
-  public synchronized static void end() {
-    if (options.ControllerOutput != null)
-      options.ControllerOutput.terminate();
+  public static void end() {
+    end(0);
+  }
+
+  /**
+   * End the controller routine and exit the program
+   *
+   * @param code exit code
+   */
+  synchronized static void end(int code) {
+    ControllerSnapshot current = snapshot;
+
+    for (ControllerOutput output : retiredOutputs)
+      output.terminate();
+
+    if (current.output != null)
+      current.output.terminate();
+
+    logger.info("Noise function invoked " + noiseStatementCallCount.sum() + " times.");
+    logger.info("Noise triggered " + noiseTriggeredCount.sum() + " times with seed " + decisions.getSeed() + ".");
+
+    if (coverageFeedback != null)
+      logger.info("Observed " + coverageFeedback.getPairCount() + " distinct cross-thread noise site pairs.");
+
+    if (interleavingCoverage != null) {
+      File coverageFile = interleavingCoverage.write();
+      logger.info("Covered " + interleavingCoverage.getCoveredCount() + " site transitions, written to '" +
+                      coverageFile.getPath() + "'.");
+    }
+
+    if (recorder != null) {
+      File decisionFile = recorder.close();
+      logger.info("Recorded " + recorder.getRecordCount() + " noise decisions to '" + decisionFile.getPath() + "'.");
+    }
+
+    if (governor != null)
+      logger.info("Noise skipped " + noiseBudgetSkipCount.sum() + " times due to the noise budget.");
+
+    if (statistics != null)
+      statistics.write(sites);
 
-    logger.info("Noise function invoked " + noiseStatementCallCount + " times.");
-    logger.info("Noise triggered " + noiseTriggeredCount + " times.");
     logger.info("OSCAR noising controller routine ended.");
-    System.exit(0);
+    System.exit(code);
+  }
+
+  static ControllerSnapshot getSnapshot() {
+    return snapshot;
   }
 
   /**
-   * Make the injected program sleep
+   * Apply a change to a copy of the current options and publish it as a new snapshot
    *
-   * @param noiseLoc instrumented location type
-   * @param uuid     instrumented location generated uuid
+   * @param change change to the options copy
    */
-  public static void noise(NoiseLocation noiseLoc, String uuid) {
+  static synchronized void update(Consumer<ControllerOptions> change) {
+    ControllerSnapshot previous = snapshot;
+    ControllerOptions options = previous.options.copy();
+    change.accept(options);
+
+    // Threads may still be writing to a replaced output, so it is only terminated when the program ends
+    ControllerSnapshot next = new ControllerSnapshot(options, sites);
+
+    if (next.output != null && next.output != previous.output)
+      next.output.writeHeader(decisions.getSeed());
+
+    snapshot = next;
+
+    if (previous.output != null && previous.output != next.output)
+      retiredOutputs.add(previous.output);
+  }
+
+  /**
+   * Meet the explicit activation condition of a controller started with manual activation, e.g. once the
+   * instrumented program is warmed up
+   */
+  public static void activate() {
+    if (activation != null)
+      activation.activate();
+  }
+
+  static boolean isActive() {
+    return activation != null && activation.isActive();
+  }
+
+  static long getNoiseCallCount() {
+    return noiseStatementCallCount.sum();
+  }
+
+  static long getNoiseTriggeredCount() {
+    return noiseTriggeredCount.sum();
+  }
+
+  static long getNoiseBudgetSkipCount() {
+    return noiseBudgetSkipCount.sum();
+  }
+
+  /**
+   * Apply the configured noise effect to the injected program. Skipped sites and untraced runs do not allocate
+   * or touch shared state, other than a striped call counter, unless site statistics are collected.
+   *
+   * @param siteID instrumented noise site id, as listed in the noise site manifest
+   */
+  public static void noise(int siteID) {
     // Increment noise statement call counter
-    noiseStatementCallCount.incrementAndGet();
+    noiseStatementCallCount.increment();
+
+    ControllerSnapshot current = snapshot;
 
     // Check if the controller has been initialized. This can occur if noise is inserted into static blocks.
-    if (options == null)
+    if (current == null)
+      return;
+
+    // Return right away outside the activation window
+    if (!activation.isActive() && !activation.hit(siteID))
       return;
 
-    // Check if location enabled
-    if (!options.noiseCategories.contains(noiseLoc.getCategory()) && !options.NoiseLocations.contains(noiseLoc)) {
-      if (!options.DisableSkippedLocations)
-        logger.fine("[SLEEP] Skipping noise location '" + noiseLoc.name() + "'.");
+    int slot = current.policy.slot(siteID);
+
+    if (statistics == null) {
+      applyNoise(current, siteID, slot);
       return;
     }
 
-    long threadID = Thread.currentThread().getId();
+    // Time the call, the noise effect is timed separately so the controller overhead can be told apart
+    long start = System.nanoTime();
+    long injectedNanos = applyNoise(current, siteID, slot);
+    long elapsed = System.nanoTime() - start;
+
+    statistics.record(ControllerThreadState.current(), slot, injectedNanos, elapsed - Math.max(injectedNanos, 0));
+  }
+
+  /**
+   * @return time spent in the noise effect, in nanoseconds, or -1 if noise was not triggered
+   */
+  private static long applyNoise(ControllerSnapshot current, int siteID, int slot) {
+    // Check if site enabled
+    if (!current.policy.isEnabled(slot)) {
+      if (current.logSkipped)
+        logger.fine("[SLEEP] Skipping noise location '" + getSiteLocation(siteID) + "' at site " + siteID + ".");
+      return -1;
+    }
+
+    ControllerThreadState thread = ControllerThreadState.current();
+    long injectedNanos = -1;
+
+    // Time spent in noise is only measured when collected
+    boolean timed = statistics != null || current.noiseTracing;
+
+    if (watchdog != null)
+      watchdog.record(thread, siteID);
 
     // Write pre-noise location trace
-    if (!options.DisablePreNoiseTracing && options.ControllerOutput != null) {
-      options.ControllerOutput.write(threadID + " " + uuid);
+    if (current.preNoiseTracing) {
+      current.output.write(thread.threadID, siteID, thread.virtual);
 
-      if (!options.Quiet)
-        logger.fine("[SIGNAL][PRE-NOISE][" + noiseLoc.getCategory() + "]" + "[" + uuid + "]");
+      if (current.logSignals)
+        logger.fine("[SIGNAL][PRE-NOISE][" + getSiteLocation(siteID) + "]" + "[" + siteID + "]");
     }
 
-    // Do not noise if noise is disabled
-    if (!options.DisableNoise) {
-      // Compute probability for noise if probability activated
-      if (options.NoiseProbability == 1 || rand.nextFloat() < options.NoiseProbability) {
-        // Get a random noise intensity
-        long noiseIntensity = options.MinNoiseIntensity;
-        noiseIntensity += Math.abs(rand.nextLong() % (1 + options.MaxNoiseIntensity - options.MinNoiseIntensity));
+    // Count the hit of hot sites and commonly interleaved sites, backing off their probability
+    int backoffLevel = backoff != null ? backoff.hit(thread, slot) : 0;
 
-        // Sleep for a determined amount of time
+    if (pct != null)
+      pct.hit(thread);
+
+    if (transitions != null) {
+      long previousEvent = transitions.hit(thread, slot);
+
+      if (interleavingCoverage != null)
+        interleavingCoverage.hit(slot, previousEvent, SiteTransitions.isOtherThread(previousEvent, thread));
+
+      if (coverageFeedback != null)
+        backoffLevel = Math.min(31, backoffLevel + coverageFeedback.hit(thread, slot, previousEvent));
+    }
+
+    // Every decision of the hit derives from the seed, the thread, the site and the thread's hits of the site
+    long decision = decisions.next(thread, siteID, slot);
+
+    // Replayed noise is only triggered at the recorded hits, with the recorded intensity
+    long replayedIntensity = replay != null ? replay.get(thread, siteID, NoiseDecisions.lastHit(thread, slot)) : -1;
+
+    // Do not noise if noise is disabled or the thread is filtered out, otherwise compute probability for noise
+    boolean triggered = !current.noiseDisabled && thread.noised &&
+                            (replay != null ? replayedIntensity >= 0 :
+                                 current.policy.shouldTrigger(slot, NoiseDecisions.triggerSample(decision), backoffLevel));
+
+    // Virtual threads blocking inside a monitor pin their carrier thread before JDK 24, so there they are only
+    // delayed up to the cap, and never held by the scheduler or a rendezvous
+    boolean pinned = thread.virtual && pinningMonitors && siteID >= 0 && siteID < monitorSites.length &&
+                         monitorSites[siteID];
+
+    if (pinned && (current.virtualMonitorCap == 0 || scheduler != null || rendezvous != null))
+      triggered = false;
+
+    // Outputs tracing noise mark its start, so their events span the noise
+    Object noise = triggered && current.noiseTracing ?
+                       current.output.beginNoise(thread.threadID, siteID, thread.virtual) : null;
+
+    // In scheduler mode triggered sites are scheduling points instead of delays
+    if (triggered && scheduler != null) {
+      long scheduleStart = timed ? System.nanoTime() : 0;
+      scheduler.schedule(thread);
+      injectedNanos = timed ? System.nanoTime() - scheduleStart : 0;
+
+      if (recorder != null)
+        recorder.record(thread, siteID, NoiseDecisions.lastHit(thread, slot), 0);
+
+      noiseTriggeredCount.increment();
+    } else if (triggered && rendezvous != null) {
+      // In rendezvous mode triggered threads are held and released together instead of delayed
+      long rendezvousStart = timed ? System.nanoTime() : 0;
+      rendezvous.await();
+      injectedNanos = timed ? System.nanoTime() - rendezvousStart : 0;
+
+      if (recorder != null)
+        recorder.record(thread, siteID, NoiseDecisions.lastHit(thread, slot), 0);
+
+      noiseTriggeredCount.increment();
+    } else if (triggered) {
+      // Virtual threads use their own effect, so noise does not hold on to their carrier thread
+      NoiseEffect effect = thread.virtual ? current.virtualThreadEffect : current.effect;
+
+      // Get a random noise intensity, or the thread's priority delay in PCT mode, unless replaying
+      double delay = pct != null ? pct.delay(thread) : decisions.intensity(decision);
+      long noiseIntensity = replayedIntensity >= 0 ? replayedIntensity : current.policy.intensity(slot, delay);
+
+      if (pinned)
+        noiseIntensity = Math.min(noiseIntensity, current.virtualMonitorCap);
+
+      // Skip noise once the delay budget is exhausted, replayed noise is injected as recorded
+      if (governor != null && replay == null && !governor.tryAcquire(thread, noiseIntensity)) {
+        noiseBudgetSkipCount.increment();
+
+        if (statistics != null)
+          statistics.recordBudgetSkip(thread, slot);
+      } else {
+        // Apply the noise effect for a determined amount of time
         try {
-          if (!options.YieldMode) {
-            logger.finest("[SLEEP]" +
-                              "[" + noiseLoc.getCategory().name() + "]" +
-                              "[" + noiseLoc.name() + "]" +
-                              "[" + uuid + "]: "
-                              + noiseIntensity + " MS."
+          if (current.logNoise)
+            logger.finest("[NOISE]" +
+                              "[" + effect.getClass().getSimpleName() + "]" +
+                              "[" + getSiteLocation(siteID) + "]" +
+                              "[" + siteID + "]: "
+                              + noiseIntensity + " NS."
             );
 
-            Thread.sleep(noiseIntensity);
-          } else {
-            logger.finest("[" + "Yield" + "]" +
-                              "[" + noiseLoc.getCategory().name() + "]" +
-                              "[" + noiseLoc.name() + "]" +
-                              "[" + uuid + "]: "
-                              + noiseIntensity + " times."
-            );
+          long effectStart = timed ? System.nanoTime() : 0;
+          effect.apply(noiseIntensity);
+          injectedNanos = timed ? System.nanoTime() - effectStart : noiseIntensity;
 
-            for (int i = 0; i < noiseIntensity; i++)
-              Thread.yield();
-          }
+          if (recorder != null)
+            recorder.record(thread, siteID, NoiseDecisions.lastHit(thread, slot), noiseIntensity);
 
-          noiseTriggeredCount.incrementAndGet();
+          noiseTriggeredCount.increment();
         } catch (InterruptedException e) {
-          throw new RuntimeException("OSCAR sleep statement was interrupted.", e);
+          throw new RuntimeException("OSCAR noise effect was interrupted.", e);
         }
       }
     }
 
+    // Write injected noise trace
+    if (current.noiseTracing && injectedNanos >= 0)
+      current.output.writeNoise(noise, thread.threadID, siteID, thread.virtual, injectedNanos);
+
     // Write post-noise location trace
-    if (!options.DisablePostNoiseTracing && options.ControllerOutput != null) {
-      options.ControllerOutput.write(threadID + " " + uuid);
+    if (current.postNoiseTracing) {
+      current.output.write(thread.threadID, siteID, thread.virtual);
 
-      if (!options.Quiet)
-        logger.fine("[SIGNAL][POST-NOISE][" + noiseLoc.getCategory() + "]" + "[" + uuid + "]");
+      if (current.logSignals)
+        logger.fine("[SIGNAL][POST-NOISE][" + getSiteLocation(siteID) + "]" + "[" + siteID + "]");
     }
+
+    return injectedNanos;
+  }
+
+  /**
+   * @param siteID noise site id
+   * @return location of the site, or null if the site is not in the manifest
+   */
+  public static NoiseLocation getSiteLocation(int siteID) {
+    return siteID >= 0 && siteID < siteLocations.length ? siteLocations[siteID] : null;
   }
 
   // Capture exit codes
   public static void exit(int code) {
     if (code == 0) {
       logger.info("Detected exit code 0. Exiting gracefully.");
-      end();
-      System.exit(0);
+      end(0);
     } else {
       logger.info("Detected exit code " + code + ". Exiting gracefully.");
-      end();
-      System.exit(code);
+      end(code);
     }
   }
 
@@ -136,7 +456,6 @@ public final class Controller {
       logger.info("\t" + trace.toString());
 
     logger.info("Exiting gracefully.");
-    end();
-    System.exit(1);
+    end(1);
   }
 }
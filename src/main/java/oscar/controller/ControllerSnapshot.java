@@ -0,0 +1,53 @@
+package oscar.controller;
+
+import oscar.controller.noise.NoisePolicy;
+import oscar.controller.noise.NoiseSite;
+import oscar.controller.noise.effect.NoiseEffect;
+import oscar.controller.util.ControllerOptions;
+import oscar.controller.util.output.ControllerOutput;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Immutable view of the controller configuration read by the noise fast path. Changes build a new snapshot from
+ * a copy of the options and publish it atomically, so a noise call never sees a half-applied change.
+ */
+final class ControllerSnapshot {
+  // The controller's own logger, getting it from the factory again would register its handler twice
+  private static final Logger logger = Logger.getLogger(Controller.class.getName());
+
+  // Options must not be changed once the snapshot is published
+  final ControllerOptions options;
+  final NoisePolicy policy;
+  final ControllerOutput output;
+  final NoiseEffect effect;
+  final NoiseEffect virtualThreadEffect;
+  final long virtualMonitorCap;
+
+  // Flags derived from the options, so the noise fast path only reads plain booleans
+  final boolean noiseDisabled;
+  final boolean preNoiseTracing;
+  final boolean postNoiseTracing;
+  final boolean noiseTracing;
+  final boolean logSkipped;
+  final boolean logSignals;
+  final boolean logNoise;
+
+  ControllerSnapshot(ControllerOptions options, NoiseSite[] sites) {
+    this.options = options;
+    this.policy = NoisePolicy.build(options, sites);
+    this.output = options.ControllerOutput;
+    this.effect = options.NoiseEffect;
+    this.virtualThreadEffect = options.VirtualThreadEffect;
+    this.virtualMonitorCap = options.NoiseIntensityUnit.toNanos(options.VirtualMonitorCap);
+
+    this.noiseDisabled = options.DisableNoise;
+    this.preNoiseTracing = !options.DisablePreNoiseTracing && output != null;
+    this.postNoiseTracing = !options.DisablePostNoiseTracing && output != null;
+    this.noiseTracing = output != null && output.tracesNoise();
+    this.logSkipped = !options.DisableSkippedLocations && logger.isLoggable(Level.FINE);
+    this.logSignals = !options.Quiet && logger.isLoggable(Level.FINE);
+    this.logNoise = logger.isLoggable(Level.FINEST);
+  }
+}
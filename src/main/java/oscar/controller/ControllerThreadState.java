@@ -0,0 +1,75 @@
+package oscar.controller;
+
+import oscar.controller.util.VirtualThreads;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controller state owned by a single instrumented thread, so the noise fast path never contends on shared state.
+ */
+final class ControllerThreadState {
+  private static final ThreadLocal<ControllerThreadState> states = ThreadLocal.withInitial(ControllerThreadState::new);
+
+  private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+  private static volatile ThreadFilter filter = null;
+
+  final Thread thread;
+  final long threadID;
+  final boolean virtual;
+  final int ordinal;
+  final long logicalID;
+  final int creationOrdinal;
+
+  // True if the thread passes the thread filter, evaluated once when the thread first hits a site
+  final boolean noised;
+
+  // Site hits counted by the thread, the hit index of seeded noise decisions
+  final SiteCounters siteHits = new SiteCounters();
+
+  // Noise decisions buffered by the thread, only used when recording them
+  ByteBuffer decisionBuffer = null;
+
+  // Sites called by the thread, only tracked when collecting site statistics
+  SiteCounters seenSites = null;
+
+  // Time at which the thread's noise budget is full, see NoiseGovernor
+  long budgetFullTime = Long.MIN_VALUE;
+
+  // Site hits counted by the thread, only tracked with a per-thread hot site backoff
+  SiteCounters backoffHits = null;
+
+  // PCT priority of the thread, 0 until the thread first hits a site in PCT mode
+  int pctPriority = 0;
+
+  // True while the thread waits at a scheduling point of the cooperative scheduler
+  volatile boolean scheduling = false;
+
+  // Last sites reached by the thread, only tracked with the watchdog
+  Watchdog.RecentSites recentSites = null;
+
+  private ControllerThreadState() {
+    this.thread = Thread.currentThread();
+    this.threadID = thread.getId();
+    this.virtual = VirtualThreads.isVirtual(thread);
+    this.ordinal = threadCount.getAndIncrement();
+    ThreadLineage lineage = ThreadLineage.current();
+    this.logicalID = lineage.id;
+    this.creationOrdinal = lineage.ordinal;
+
+    ThreadFilter threadFilter = filter;
+    this.noised = threadFilter == null || threadFilter.matches(this);
+  }
+
+  /**
+   * Set the filter of noised threads, must be called before any thread state is created
+   */
+  static void setFilter(ThreadFilter threadFilter) {
+    filter = threadFilter;
+  }
+
+  static ControllerThreadState current() {
+    return states.get();
+  }
+}
@@ -0,0 +1,141 @@
+package oscar.controller;
+
+import oscar.controller.scheduler.SchedulingStrategy;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cooperative scheduler serializing the instrumented threads at noise points. Every noise point is a scheduling
+ * point where the running thread waits and the strategy picks the next thread to release, so only one thread runs
+ * between points and no time is spent sleeping.
+ * <p>
+ * Threads are identified by their creation ordinal (see {@link ThreadLineage}), which only depends on the order in
+ * which the program creates threads, and are offered to the strategy in ascending ordinal order.
+ * <p>
+ * Threads also block or end outside the controller. When the running thread is not runnable, or has not reached
+ * a scheduling point within the timeout, it is considered stalled and the next waiting thread is released. Waiting
+ * threads park until they are released, only one of them wakes up periodically to check for stalls.
+ * Schedules are reproducible for a given seed as long as threads reach their first scheduling point at the same
+ * step of the schedule and no thread stalls.
+ */
+final class CooperativeScheduler {
+  private static final long CHECK_INTERVAL_NANOS = 100_000;
+
+  private final SchedulingStrategy strategy;
+  private final long timeoutNanos;
+  // Waiting threads, sorted by creation ordinal
+  private final ArrayList<ControllerThreadState> waiting = new ArrayList<>();
+  private int[] candidates = new int[16];
+
+  private volatile ControllerThreadState running = null;
+  private volatile long runningSince = 0;
+
+  // Waiting thread checking the running thread for stalls
+  private volatile ControllerThreadState checker = null;
+
+  /**
+   * @param strategy      picks the thread to release
+   * @param timeoutMillis time after which a running thread that did not reach a scheduling point is stalled
+   */
+  CooperativeScheduler(SchedulingStrategy strategy, long timeoutMillis) {
+    this.strategy = strategy;
+    this.timeoutNanos = timeoutMillis * 1_000_000;
+  }
+
+  /**
+   * Wait at a scheduling point until the calling thread is released
+   *
+   * @param thread calling thread
+   */
+  void schedule(ControllerThreadState thread) {
+    thread.scheduling = true;
+
+    synchronized (this) {
+      ControllerThreadState current = running;
+      addWaiting(thread);
+
+      // Threads that ran without being released, e.g. before reaching their first point, only wait their turn
+      if (current == null || current == thread || isStalled(current))
+        release(current == thread ? thread : null);
+
+      // The latest waiting thread checks for stalls, the previous checker parks for good on its next check
+      if (running != thread)
+        checker = thread;
+    }
+
+    boolean interrupted = false;
+
+    while (running != thread) {
+      if (checker != thread) {
+        LockSupport.park(this);
+        interrupted |= Thread.interrupted();
+        continue;
+      }
+
+      LockSupport.parkNanos(this, CHECK_INTERVAL_NANOS);
+      interrupted |= Thread.interrupted();
+
+      ControllerThreadState current = running;
+
+      if (current != null && current != thread && isStalled(current))
+        synchronized (this) {
+          if (running == current && !waiting.isEmpty())
+            release(null);
+        }
+    }
+
+    thread.scheduling = false;
+
+    // Restore the interrupt for the instrumented program to handle
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  /**
+   * Release the next waiting thread, must hold the scheduler lock
+   *
+   * @param previous thread that ran up to this point, or null if it stalled
+   */
+  private void release(ControllerThreadState previous) {
+    if (candidates.length < waiting.size())
+      candidates = new int[waiting.size() * 2];
+
+    for (int i = 0; i < waiting.size(); i++)
+      candidates[i] = waiting.get(i).creationOrdinal;
+
+    int picked = strategy.pick(candidates, waiting.size(), previous == null ? -1 : previous.creationOrdinal);
+    ControllerThreadState next = waiting.remove(picked);
+
+    runningSince = System.nanoTime();
+    running = next;
+
+    if (next != previous)
+      LockSupport.unpark(next.thread);
+
+    // Hand stall checks over to another waiting thread
+    if (checker == next) {
+      checker = waiting.isEmpty() ? null : waiting.get(waiting.size() - 1);
+
+      if (checker != null)
+        LockSupport.unpark(checker.thread);
+    }
+  }
+
+  private void addWaiting(ControllerThreadState thread) {
+    int index = waiting.size();
+
+    while (index > 0 && waiting.get(index - 1).creationOrdinal > thread.creationOrdinal)
+      index--;
+
+    waiting.add(index, thread);
+  }
+
+  private boolean isStalled(ControllerThreadState thread) {
+    // Released threads may still be parked at their scheduling point, they are about to run
+    if (thread.scheduling)
+      return false;
+
+    return thread.thread.getState() != Thread.State.RUNNABLE || System.nanoTime() - runningSince > timeoutNanos;
+  }
+}
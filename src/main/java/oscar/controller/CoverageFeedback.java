@@ -0,0 +1,109 @@
+package oscar.controller;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Coverage feedback biasing noise towards rarely observed interleavings. Every hit of a site following a hit of
+ * another thread records the cross-thread site pair in a lock-free open-addressing hash table of pair counts.
+ * The noise probability of a site is halved for every doubling of the count of the last pair it completed,
+ * so sites completing new pairs are noised with their full probability. The table is sized from the number of
+ * sites, and pairs that no longer fit in it are treated as new.
+ */
+final class CoverageFeedback {
+  private static final int MAX_LEVEL = 31;
+  private static final int MIN_CAPACITY = 1 << 16;
+  private static final int MAX_CAPACITY = 1 << 20;
+  private static final int MAX_PROBES = 64;
+
+  private final int mask;
+
+  // Pair keys are never 0, as the first site is stored plus one
+  private final AtomicLongArray pairKeys;
+  private final AtomicIntegerArray pairCounts;
+
+  // Probability level of each slot, racy updates only delay the bias of a site
+  private final int[] levels;
+
+  /**
+   * @param slots number of policy slots
+   */
+  CoverageFeedback(int slots) {
+    this(slots, pairCapacity(slots));
+  }
+
+  /**
+   * @param slots    number of policy slots
+   * @param capacity number of pairs the table holds, a power of 2
+   */
+  CoverageFeedback(int slots, int capacity) {
+    this.levels = new int[slots];
+    this.mask = capacity - 1;
+    this.pairKeys = new AtomicLongArray(capacity);
+    this.pairCounts = new AtomicIntegerArray(capacity);
+  }
+
+  // Room for every site pair, within bounds
+  private static int pairCapacity(int slots) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < MAX_CAPACITY && capacity < (long) slots * slots)
+      capacity <<= 1;
+
+    return capacity;
+  }
+
+  /**
+   * Record a hit of a site
+   *
+   * @param thread        calling thread
+   * @param slot          policy slot of the site
+   * @param previousEvent previous site hit, see {@link SiteTransitions}
+   * @return the number of times the site's probability must be halved
+   */
+  int hit(ControllerThreadState thread, int slot, long previousEvent) {
+    if (SiteTransitions.isOtherThread(previousEvent, thread)) {
+      int count = incrementPair(SiteTransitions.getSlot(previousEvent), slot);
+      levels[slot] = Math.min(MAX_LEVEL, Integer.SIZE - 1 - Integer.numberOfLeadingZeros(count));
+    }
+
+    return levels[slot];
+  }
+
+  /**
+   * @return number of distinct cross-thread site pairs observed
+   */
+  int getPairCount() {
+    int pairs = 0;
+
+    for (int i = 0; i < pairKeys.length(); i++)
+      if (pairKeys.get(i) != 0)
+        pairs++;
+
+    return pairs;
+  }
+
+  /**
+   * @return the number of times the pair was observed, including this one
+   */
+  private int incrementPair(int previousSlot, int slot) {
+    long key = ((long) (previousSlot + 1) << Integer.SIZE) | slot;
+    int index = (int) Hashing.mix(key) & mask;
+
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      long storedKey = pairKeys.get(index);
+
+      if (storedKey == 0 && pairKeys.compareAndSet(index, 0, key))
+        storedKey = key;
+      else if (storedKey == 0)
+        storedKey = pairKeys.get(index);
+
+      if (storedKey == key)
+        return pairCounts.incrementAndGet(index);
+
+      index = (index + 1) & mask;
+    }
+
+    // The table is saturated around this key, the pair was never recorded so it is new
+    return 1;
+  }
+}
@@ -0,0 +1,92 @@
+package oscar.controller;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary log of the noise triggered by a run, written by {@link DecisionRecorder} and replayed by
+ * {@link DecisionReplay}.
+ * <p>
+ * A log starts with a header (8 byte magic, int version, int record size, long run seed) followed by fixed-size
+ * records: a long logical thread id (see {@link ThreadLineage}), an int site id, a long hit index of the site by the
+ * thread and a long noise intensity in nanoseconds, all little endian. Records of a thread are in hit order, records
+ * of different threads are interleaved in no particular order.
+ * <p>
+ * Running this class prints a log as text, a "# seed" line followed by "thread site hit intensity" lines.
+ */
+public final class DecisionLog {
+  public static final byte[] MAGIC = {'O', 'S', 'C', 'A', 'R', 'D', 'E', 'C'};
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES + Long.BYTES;
+  public static final int RECORD_SIZE = 3 * Long.BYTES + Integer.BYTES;
+
+  private DecisionLog() {}
+
+  static ByteBuffer header(long seed) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putLong(seed);
+    header.flip();
+    return header;
+  }
+
+  static void putRecord(ByteBuffer buffer, long logicalID, int siteID, long hit, long intensity) {
+    buffer.putLong(logicalID).putInt(siteID).putLong(hit).putLong(intensity);
+  }
+
+  /**
+   * Read a decision log, checking its header
+   *
+   * @param file decision log file
+   * @return the log, positioned at the run seed, which is followed by the records
+   */
+  static ByteBuffer read(String file) throws IOException {
+    ByteBuffer log;
+
+    try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+      log = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+
+      while (log.hasRemaining() && channel.read(log) >= 0) ;
+      log.flip();
+    }
+
+    if (log.remaining() < HEADER_SIZE)
+      throw new RuntimeException("File '" + file + "' is not an OSCAR decision log.");
+
+    byte[] magic = new byte[MAGIC.length];
+    log.get(magic);
+
+    if (!Arrays.equals(magic, MAGIC))
+      throw new RuntimeException("File '" + file + "' is not an OSCAR decision log.");
+
+    int version = log.getInt();
+    int recordSize = log.getInt();
+
+    if (version != VERSION || recordSize != RECORD_SIZE)
+      throw new RuntimeException("Unsupported decision log version " + version + ".");
+
+    return log;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.out.println("Usage: java oscar.controller.DecisionLog <decision log file>");
+      System.exit(1);
+    }
+
+    ByteBuffer log = read(args[0]);
+    PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+
+    writer.println("# seed " + log.getLong());
+
+    // Incomplete trailing records, left by killed runs, are ignored
+    while (log.remaining() >= RECORD_SIZE)
+      writer.println(log.getLong() + " " + log.getInt() + " " + log.getLong() + " " + log.getLong());
+
+    writer.flush();
+  }
+}
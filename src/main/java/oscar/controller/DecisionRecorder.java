@@ -0,0 +1,116 @@
+package oscar.controller;
+
+import oscar.controller.util.output.FileOutput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the noise triggered by every thread into a {@link DecisionLog}. Threads append records to buffers of
+ * their own, which are appended to the log when full and when the program ends, so a killed run keeps every
+ * record but the ones still buffered.
+ */
+final class DecisionRecorder {
+  private static final int BUFFER_SIZE = (1 << 12) * DecisionLog.RECORD_SIZE;
+
+  private final File file;
+  private final FileChannel channel;
+  private final CopyOnWriteArrayList<ByteBuffer> buffers = new CopyOnWriteArrayList<>();
+  private final LongAdder records = new LongAdder();
+  private boolean closed = false;
+
+  /**
+   * @param seed seed of the run, written to the log header
+   */
+  DecisionRecorder(long seed) {
+    this.file = FileOutput.createOutputFile("oscar_decisions", ".bin");
+
+    try {
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      write(DecisionLog.header(seed));
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open decision log '" + file.getPath() + "'.", e);
+    }
+  }
+
+  /**
+   * @param thread    calling thread
+   * @param siteID    site id
+   * @param hit       hit index of the site by the thread
+   * @param intensity noise intensity, in nanoseconds
+   */
+  void record(ControllerThreadState thread, int siteID, long hit, long intensity) {
+    ByteBuffer buffer = thread.decisionBuffer;
+
+    if (buffer == null) {
+      buffer = thread.decisionBuffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      buffers.add(buffer);
+    }
+
+    // Buffers are only locked by another thread when the program ends
+    synchronized (buffer) {
+      if (buffer.remaining() < DecisionLog.RECORD_SIZE)
+        flush(buffer);
+
+      DecisionLog.putRecord(buffer, thread.logicalID, siteID, hit, intensity);
+    }
+
+    records.increment();
+  }
+
+  /**
+   * Append every buffered record and close the log, later records are dropped
+   *
+   * @return the log file
+   */
+  File close() {
+    for (ByteBuffer buffer : buffers)
+      synchronized (buffer) {
+        flush(buffer);
+      }
+
+    synchronized (channel) {
+      closed = true;
+
+      try {
+        channel.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to close decision log '" + file.getPath() + "'.", e);
+      }
+    }
+
+    return file;
+  }
+
+  long getRecordCount() {
+    return records.sum();
+  }
+
+  private void flush(ByteBuffer buffer) {
+    buffer.flip();
+
+    try {
+      write(buffer);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write to decision log '" + file.getPath() + "'.", e);
+    }
+
+    buffer.clear();
+  }
+
+  private void write(ByteBuffer buffer) throws IOException {
+    synchronized (channel) {
+      if (closed)
+        return;
+
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+    }
+  }
+}
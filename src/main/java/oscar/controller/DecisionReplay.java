@@ -0,0 +1,86 @@
+package oscar.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Noise recorded in a {@link DecisionLog}, looked up by logical thread, site and hit index. Replaying a log injects
+ * the recorded noise at exactly the recorded hits and no noise anywhere else.
+ */
+final class DecisionReplay {
+  private final long seed;
+  private final int size;
+
+  // Open addressing table, empty entries have a negative intensity
+  private final int mask;
+  private final long[] threads;
+  private final int[] sites;
+  private final long[] hits;
+  private final long[] intensities;
+
+  /**
+   * @param file decision log to replay
+   */
+  DecisionReplay(String file) {
+    ByteBuffer log;
+
+    try {
+      log = DecisionLog.read(file);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read decision log '" + file + "'.", e);
+    }
+
+    this.seed = log.getLong();
+    this.size = log.remaining() / DecisionLog.RECORD_SIZE;
+
+    int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+    this.mask = capacity - 1;
+    this.threads = new long[capacity];
+    this.sites = new int[capacity];
+    this.hits = new long[capacity];
+    this.intensities = new long[capacity];
+    Arrays.fill(intensities, -1);
+
+    for (int i = 0; i < size; i++)
+      put(log.getLong(), log.getInt(), log.getLong(), log.getLong());
+  }
+
+  /**
+   * @param thread calling thread
+   * @param siteID site id
+   * @param hit    hit index of the site by the thread
+   * @return recorded noise intensity, in nanoseconds, or -1 if no noise was recorded for the hit
+   */
+  long get(ControllerThreadState thread, int siteID, long hit) {
+    for (int i = index(thread.logicalID, siteID, hit); intensities[i] >= 0; i = (i + 1) & mask)
+      if (threads[i] == thread.logicalID && sites[i] == siteID && hits[i] == hit)
+        return intensities[i];
+
+    return -1;
+  }
+
+  long getSeed() {
+    return seed;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void put(long logicalID, int siteID, long hit, long intensity) {
+    int i = index(logicalID, siteID, hit);
+
+    while (intensities[i] >= 0 && !(threads[i] == logicalID && sites[i] == siteID && hits[i] == hit))
+      i = (i + 1) & mask;
+
+    threads[i] = logicalID;
+    sites[i] = siteID;
+    hits[i] = hit;
+    intensities[i] = Math.max(intensity, 0);
+  }
+
+  private int index(long logicalID, int siteID, long hit) {
+    return (int) Hashing.mix(logicalID + siteID * Hashing.GOLDEN_GAMMA + Hashing.mix(hit)) & mask;
+  }
+}
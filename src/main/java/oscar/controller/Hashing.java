@@ -0,0 +1,25 @@
+package oscar.controller;
+
+/**
+ * Hashing shared by everything deriving values from the seed, thread lineages and sites. Recorded decisions are
+ * replayed by recomputing these hashes, so every class must use the same functions.
+ */
+final class Hashing {
+  // Odd constant spreading consecutive values over the whole long range
+  static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private Hashing() {
+  }
+
+  /**
+   * SplitMix64 finalizer
+   *
+   * @param value value to mix
+   * @return the mixed value, every bit depending on every bit of the value
+   */
+  static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+}
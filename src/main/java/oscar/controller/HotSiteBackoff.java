@@ -0,0 +1,93 @@
+package oscar.controller;
+
+import oscar.controller.noise.NoiseBackoffScope;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Exponential backoff of the noise probability of hot sites. The first hits of a site are noised with its full
+ * probability, after that the probability is halved every time the number of hits doubles, so a site in a tight
+ * loop is noised a logarithmic number of times. Hit counts can be reset every time window.
+ */
+final class HotSiteBackoff {
+  private static final int MAX_LEVEL = 31;
+
+  // Windowed hit counters hold the window in their top bits
+  private static final int WINDOW_SHIFT = 40;
+  private static final long HITS_MASK = (1L << WINDOW_SHIFT) - 1;
+
+  private final NoiseBackoffScope scope;
+  private final long threshold;
+  private final long windowNanos;
+  private final long startNanos = System.nanoTime();
+  private final AtomicLongArray siteHits;
+
+  /**
+   * @param scope        scope in which hits are counted
+   * @param threshold    number of hits noised with the full probability
+   * @param windowMillis time after which hit counts are reset, in milliseconds, or 0 to never reset them
+   * @param slots        number of policy slots
+   */
+  HotSiteBackoff(NoiseBackoffScope scope, long threshold, long windowMillis, int slots) {
+    this.scope = scope;
+    this.threshold = threshold;
+    this.windowNanos = windowMillis * 1_000_000;
+    this.siteHits = scope == NoiseBackoffScope.SITE ? new AtomicLongArray(slots) : null;
+  }
+
+  /**
+   * Count a hit of a site
+   *
+   * @param thread calling thread
+   * @param slot   policy slot of the site
+   * @return the number of times the site's probability must be halved
+   */
+  int hit(ControllerThreadState thread, int slot) {
+    long hits = scope == NoiseBackoffScope.SITE ? hitSite(slot) : hitThread(thread, slot);
+
+    if (hits <= threshold)
+      return 0;
+
+    return Math.min(MAX_LEVEL, Long.SIZE - Long.numberOfLeadingZeros((hits - 1) / threshold));
+  }
+
+  private long hitSite(int slot) {
+    if (windowNanos == 0)
+      return siteHits.incrementAndGet(slot);
+
+    long window = currentWindow();
+
+    while (true) {
+      long counter = siteHits.get(slot);
+      long hits = nextHits(counter, window);
+
+      if (siteHits.compareAndSet(slot, counter, (window << WINDOW_SHIFT) | hits))
+        return hits;
+    }
+  }
+
+  private long hitThread(ControllerThreadState thread, int slot) {
+    if (thread.backoffHits == null)
+      thread.backoffHits = new SiteCounters();
+
+    if (windowNanos == 0)
+      return thread.backoffHits.getAndIncrement(slot) + 1;
+
+    long window = currentWindow();
+    long hits = nextHits(thread.backoffHits.get(slot), window);
+    thread.backoffHits.set(slot, (window << WINDOW_SHIFT) | hits);
+
+    return hits;
+  }
+
+  private long currentWindow() {
+    return ((System.nanoTime() - startNanos) / windowNanos) & (-1L >>> WINDOW_SHIFT);
+  }
+
+  private static long nextHits(long counter, long window) {
+    if (counter >>> WINDOW_SHIFT != window)
+      return 1;
+
+    return Math.min(HITS_MASK, (counter & HITS_MASK) + 1);
+  }
+}
@@ -0,0 +1,143 @@
+package oscar.controller;
+
+import oscar.controller.util.output.FileOutput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory interleaving coverage, a hashed bitmap of site transitions: the previous site hit, the current site
+ * and whether the thread changed between them. Transitions that hash to the same bit are counted once.
+ * <p>
+ * The summary written at exit holds a header (8 byte magic, int version, int bitmap size in bits) followed by the
+ * bitmap as little endian longs. Bitmaps of a campaign can be merged to measure its total coverage, running this
+ * class prints the coverage of each summary and of their union.
+ */
+public final class InterleavingCoverage {
+  public static final byte[] MAGIC = {'O', 'S', 'C', 'A', 'R', 'C', 'O', 'V'};
+  public static final int VERSION = 1;
+  public static final int BITS = 1 << 16;
+  private static final int HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES;
+
+  private final AtomicLongArray bitmap = new AtomicLongArray(BITS / Long.SIZE);
+
+  InterleavingCoverage() {}
+
+  /**
+   * @param slot          policy slot of the site hit
+   * @param previousEvent previous site hit, see {@link SiteTransitions}
+   * @param threadChanged true if the previous hit was made by another thread
+   */
+  void hit(int slot, long previousEvent, boolean threadChanged) {
+    int previousSlot = previousEvent == SiteTransitions.NO_EVENT ? -1 : SiteTransitions.getSlot(previousEvent);
+    long transition = ((long) (previousSlot + 1) << 33) | ((long) slot << 1) | (threadChanged ? 1 : 0);
+    int bit = (int) Hashing.mix(transition) & (BITS - 1);
+
+    int index = bit >>> 6;
+    long mask = 1L << bit;
+
+    // Most transitions are already covered, only write new bits
+    long word = bitmap.get(index);
+    while ((word & mask) == 0 && !bitmap.compareAndSet(index, word, word | mask))
+      word = bitmap.get(index);
+  }
+
+  /**
+   * Write the coverage bitmap to a new output file
+   *
+   * @return the written file
+   */
+  File write() {
+    File file = FileOutput.createOutputFile("oscar_coverage", ".bin");
+    ByteBuffer summary = ByteBuffer.allocate(HEADER_SIZE + BITS / Byte.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    summary.put(MAGIC).putInt(VERSION).putInt(BITS);
+    for (int i = 0; i < bitmap.length(); i++)
+      summary.putLong(bitmap.get(i));
+    summary.flip();
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (summary.hasRemaining())
+        channel.write(summary);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write interleaving coverage to '" + file.getPath() + "'.", e);
+    }
+
+    return file;
+  }
+
+  /**
+   * @return number of covered bitmap bits
+   */
+  int getCoveredCount() {
+    int covered = 0;
+
+    for (int i = 0; i < bitmap.length(); i++)
+      covered += Long.bitCount(bitmap.get(i));
+
+    return covered;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.out.println("Usage: java oscar.controller.InterleavingCoverage <coverage file>...");
+      System.exit(1);
+    }
+
+    long[] union = new long[BITS / Long.SIZE];
+
+    for (String file : args) {
+      long[] bitmap = read(file);
+      int covered = 0;
+
+      for (int i = 0; i < bitmap.length; i++) {
+        covered += Long.bitCount(bitmap[i]);
+        union[i] |= bitmap[i];
+      }
+
+      System.out.println(file + "\t" + covered);
+    }
+
+    System.out.println("total\t" + Arrays.stream(union).map(Long::bitCount).sum());
+  }
+
+  private static long[] read(String file) throws IOException {
+    ByteBuffer summary;
+
+    try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+      summary = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+
+      while (summary.hasRemaining() && channel.read(summary) >= 0) ;
+      summary.flip();
+    }
+
+    if (summary.remaining() < HEADER_SIZE)
+      throw new RuntimeException("File '" + file + "' is not an OSCAR coverage summary.");
+
+    byte[] magic = new byte[MAGIC.length];
+    summary.get(magic);
+
+    if (!Arrays.equals(magic, MAGIC))
+      throw new RuntimeException("File '" + file + "' is not an OSCAR coverage summary.");
+
+    int version = summary.getInt();
+    int bits = summary.getInt();
+
+    if (version != VERSION || bits != BITS || summary.remaining() < BITS / Byte.SIZE)
+      throw new RuntimeException("Unsupported coverage summary version " + version + ".");
+
+    long[] bitmap = new long[BITS / Long.SIZE];
+    for (int i = 0; i < bitmap.length; i++)
+      bitmap[i] = summary.getLong();
+
+    return bitmap;
+  }
+}
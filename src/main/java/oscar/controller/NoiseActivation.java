@@ -0,0 +1,118 @@
+package oscar.controller;
+
+import oscar.utils.logger.LoggerFactory;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Activation window of the controller. The window opens once any configured condition is met, or every one of them
+ * if all are required: a delay since the controller started, a number of hits of a given site and an explicit
+ * {@link Controller#activate()} call. It closes for good after the active duration, if set. Noise calls outside the window return right away.
+ */
+final class NoiseActivation {
+  private static final Logger logger = LoggerFactory.getInstance(NoiseActivation.class);
+
+  private final int site;
+  private final long siteHits;
+  private final boolean manual;
+  private final long durationMillis;
+
+  private final AtomicInteger pendingConditions;
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicBoolean activated = new AtomicBoolean(false);
+  private final ScheduledThreadPoolExecutor timer;
+
+  private volatile boolean active;
+  private volatile boolean closed = false;
+
+  /**
+   * @param delaySeconds    time after which the window can open (0 for none)
+   * @param site            site whose hits open the window (-1 for none)
+   * @param siteHits        number of hits of the site after which the window can open
+   * @param manual          true if the window only opens after an explicit activation
+   * @param requireAll      true if the window opens once every condition is met, instead of any
+   * @param durationSeconds time after which the window closes once open (0 for never)
+   */
+  NoiseActivation(long delaySeconds, int site, long siteHits, boolean manual, boolean requireAll,
+                  long durationSeconds) {
+    this.site = site;
+    this.siteHits = siteHits;
+    this.manual = manual;
+    this.durationMillis = durationSeconds * 1000;
+
+    int conditions = (delaySeconds > 0 ? 1 : 0) + (site >= 0 ? 1 : 0) + (manual ? 1 : 0);
+    // Further conditions met once the window opened take the count below 0 and are ignored
+    this.pendingConditions = new AtomicInteger(requireAll ? conditions : Math.min(conditions, 1));
+    this.active = conditions == 0;
+
+    // The timer thread is created by whichever thread schedules first and does not inherit thread locals, so it
+    // takes no part in the thread lineage
+    this.timer = new ScheduledThreadPoolExecutor(1, task -> {
+      Thread thread = new Thread(null, task, "oscar-activation", 0, false);
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    if (conditions == 0 && durationMillis > 0)
+      schedule(this::close, durationMillis);
+
+    if (delaySeconds > 0)
+      schedule(this::meetCondition, delaySeconds * 1000);
+  }
+
+  /**
+   * @return true if noise calls are inside the window
+   */
+  boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Count a hit made while the window is not open
+   *
+   * @param siteID site id
+   * @return true if the window is now open
+   */
+  boolean hit(int siteID) {
+    if (siteID == site && !closed && hits.incrementAndGet() == siteHits)
+      meetCondition();
+
+    return active;
+  }
+
+  /**
+   * Meet the explicit activation condition
+   */
+  void activate() {
+    if (!manual)
+      logger.warning("Ignoring controller activation, manual activation is not enabled.");
+    else if (activated.compareAndSet(false, true))
+      meetCondition();
+  }
+
+  private void meetCondition() {
+    if (pendingConditions.decrementAndGet() != 0)
+      return;
+
+    active = true;
+    logger.info("Noise activated.");
+
+    if (durationMillis > 0)
+      schedule(this::close, durationMillis);
+  }
+
+  private void close() {
+    closed = true;
+    active = false;
+    logger.info("Noise deactivated.");
+  }
+
+  private void schedule(Runnable task, long delayMillis) {
+    timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,217 @@
+package oscar.controller;
+
+import oscar.controller.noise.NoiseCategory;
+import oscar.controller.noise.NoiseLocation;
+import oscar.controller.noise.effect.NoiseEffect;
+import oscar.controller.util.ControllerOptions;
+import oscar.controller.util.output.*;
+import oscar.utils.logger.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * JMX control of a running controller. Reads use the current snapshot, changes are applied to a copy of its
+ * options and published as a new snapshot.
+ */
+final class NoiseControl implements NoiseControlMXBean {
+  private static final Logger logger = LoggerFactory.getInstance(NoiseControl.class);
+
+  static final String OBJECT_NAME = "oscar:type=Controller";
+
+  static void register() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(new NoiseControl(), new ObjectName(OBJECT_NAME));
+    } catch (JMException e) {
+      throw new RuntimeException("Failed to register controller MBean '" + OBJECT_NAME + "'.", e);
+    }
+
+    logger.info("Registered controller MBean '" + OBJECT_NAME + "'.");
+  }
+
+  @Override
+  public long getNoiseCallCount() {
+    return Controller.getNoiseCallCount();
+  }
+
+  @Override
+  public long getNoiseTriggeredCount() {
+    return Controller.getNoiseTriggeredCount();
+  }
+
+  @Override
+  public long getNoiseBudgetSkipCount() {
+    return Controller.getNoiseBudgetSkipCount();
+  }
+
+  @Override
+  public boolean isNoiseActive() {
+    return Controller.isActive();
+  }
+
+  @Override
+  public void activate() {
+    Controller.activate();
+  }
+
+  @Override
+  public boolean isNoiseDisabled() {
+    return options().DisableNoise;
+  }
+
+  @Override
+  public void setNoiseDisabled(boolean disabled) {
+    update("noise disabled", options -> options.DisableNoise = disabled);
+  }
+
+  @Override
+  public float getNoiseProbability() {
+    return options().NoiseProbability;
+  }
+
+  @Override
+  public void setNoiseProbability(float probability) {
+    if (probability < 0 || probability > 1)
+      throw new IllegalArgumentException("Invalid value for 'noise probability', must be between 0 and 1.");
+
+    update("noise probability", options -> options.NoiseProbability = probability);
+  }
+
+  @Override
+  public long getMinNoiseIntensity() {
+    return options().MinNoiseIntensity;
+  }
+
+  @Override
+  public long getMaxNoiseIntensity() {
+    return options().MaxNoiseIntensity;
+  }
+
+  @Override
+  public String getNoiseIntensityUnit() {
+    return options().NoiseIntensityUnit.name();
+  }
+
+  @Override
+  public void setNoiseIntensity(long min, long max) {
+    if (min < 0 || min > max)
+      throw new IllegalArgumentException("Invalid noise intensity range, must be positive with min lower than max.");
+
+    update("noise intensity", options -> {
+      options.MinNoiseIntensity = min;
+      options.MaxNoiseIntensity = max;
+    });
+  }
+
+  @Override
+  public String getNoiseEffect() {
+    return options().NoiseEffect.getClass().getName();
+  }
+
+  @Override
+  public void setNoiseEffect(String effect) {
+    NoiseEffect noiseEffect = NoiseEffect.fromString(effect);
+    update("noise effect", options -> options.NoiseEffect = noiseEffect);
+  }
+
+  @Override
+  public String[] getNoiseCategories() {
+    return options().noiseCategories.stream().map(NoiseCategory::getShorthand).sorted().toArray(String[]::new);
+  }
+
+  @Override
+  public void enableCategory(String shorthand) {
+    NoiseCategory category = NoiseCategory.fromString(shorthand);
+    update("noise categories", options -> options.noiseCategories.add(category));
+  }
+
+  @Override
+  public void disableCategory(String shorthand) {
+    NoiseCategory category = NoiseCategory.fromString(shorthand);
+    update("noise categories", options -> options.noiseCategories.remove(category));
+  }
+
+  @Override
+  public String[] getNoiseLocations() {
+    return options().NoiseLocations.stream().map(NoiseLocation::getShorthand).sorted().toArray(String[]::new);
+  }
+
+  @Override
+  public void enableLocation(String shorthand) {
+    NoiseLocation location = NoiseLocation.fromString(shorthand);
+    update("noise locations", options -> options.NoiseLocations.add(location));
+  }
+
+  @Override
+  public void disableLocation(String shorthand) {
+    NoiseLocation location = NoiseLocation.fromString(shorthand);
+    update("noise locations", options -> options.NoiseLocations.remove(location));
+  }
+
+  @Override
+  public int[] getDisabledSites() {
+    return options().DisabledSites.stream().mapToInt(Integer::intValue).sorted().toArray();
+  }
+
+  @Override
+  public void enableSite(int siteID) {
+    update("disabled sites", options -> options.DisabledSites.remove(siteID));
+  }
+
+  @Override
+  public void disableSite(int siteID) {
+    update("disabled sites", options -> options.DisabledSites.add(siteID));
+  }
+
+  @Override
+  public String getOutput() {
+    ControllerOutput output = options().ControllerOutput;
+    return output == null ? "none" : output.getClass().getSimpleName();
+  }
+
+  @Override
+  public void setOutput(String output) {
+    ControllerOutput controllerOutput;
+
+    switch (output.toLowerCase()) {
+      case "none":
+        controllerOutput = null;
+        break;
+      case "console":
+        controllerOutput = new ConsoleOutput();
+        break;
+      case "file":
+        controllerOutput = new RegularFileOutput();
+        break;
+      case "lazy":
+        controllerOutput = new LazyFileOutput();
+        break;
+      case "binary":
+        controllerOutput = new BinaryFileOutput();
+        break;
+      case "mapped":
+        controllerOutput = new MappedFileOutput();
+        break;
+      case "jfr":
+        controllerOutput = ControllerOptions.createJfrOutput();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown output '" + output +
+                                               "', expected none, console, file, lazy, binary, mapped or jfr.");
+    }
+
+    update("output", options -> options.ControllerOutput = controllerOutput);
+  }
+
+  private static ControllerOptions options() {
+    return Controller.getSnapshot().options;
+  }
+
+  private static void update(String property, Consumer<ControllerOptions> change) {
+    Controller.update(change);
+    logger.info("Updated " + property + " through JMX.");
+  }
+}
@@ -0,0 +1,77 @@
+package oscar.controller;
+
+/**
+ * Management interface of a running OSCAR controller, registered as "oscar:type=Controller".
+ * Every change is applied atomically to the noise calls that start after it.
+ */
+public interface NoiseControlMXBean {
+  long getNoiseCallCount();
+
+  long getNoiseTriggeredCount();
+
+  long getNoiseBudgetSkipCount();
+
+  boolean isNoiseActive();
+
+  /**
+   * Meet the explicit activation condition, if the controller was started with manual activation
+   */
+  void activate();
+
+  boolean isNoiseDisabled();
+
+  void setNoiseDisabled(boolean disabled);
+
+  float getNoiseProbability();
+
+  void setNoiseProbability(float probability);
+
+  long getMinNoiseIntensity();
+
+  long getMaxNoiseIntensity();
+
+  String getNoiseIntensityUnit();
+
+  /**
+   * Set the noise intensity range, in the intensity unit
+   */
+  void setNoiseIntensity(long min, long max);
+
+  String getNoiseEffect();
+
+  /**
+   * @param effect sleep, park, spin, yield or a NoiseEffect class name
+   */
+  void setNoiseEffect(String effect);
+
+  String[] getNoiseCategories();
+
+  void enableCategory(String shorthand);
+
+  void disableCategory(String shorthand);
+
+  String[] getNoiseLocations();
+
+  void enableLocation(String shorthand);
+
+  void disableLocation(String shorthand);
+
+  int[] getDisabledSites();
+
+  /**
+   * Remove a site from the disabled sites, the site is noised if its location is active
+   */
+  void enableSite(int siteID);
+
+  void disableSite(int siteID);
+
+  String getOutput();
+
+  /**
+   * Switch the trace output. The previous output is terminated when the program ends, as threads may still be
+   * writing to it.
+   *
+   * @param output none, console, file, lazy, binary, mapped or jfr
+   */
+  void setOutput(String output);
+}
@@ -0,0 +1,64 @@
+package oscar.controller;
+
+import oscar.controller.noise.IntensityTable;
+import oscar.controller.noise.NoiseDistribution;
+
+/**
+ * Seeded noise decisions. Every decision is a hash of the seed, the thread's logical id (see {@link ThreadLineage}),
+ * the site id and the number of times the thread hit the site before, so it needs no shared state and a run with
+ * the same seed and the same scheduling repeats every decision exactly.
+ */
+final class NoiseDecisions {
+  private final long seed;
+  private final IntensityTable intensities;
+
+  /**
+   * @param seed         run seed
+   * @param distribution intensity distribution
+   * @param parameter    intensity distribution parameter
+   */
+  NoiseDecisions(long seed, NoiseDistribution distribution, double parameter) {
+    this.seed = seed;
+    this.intensities = new IntensityTable(distribution, parameter, seed);
+  }
+
+  /**
+   * Count a hit of the site by the thread and derive its decision
+   *
+   * @param thread calling thread
+   * @param siteID site id
+   * @param slot   policy slot of the site
+   * @return uniformly distributed decision hash, see {@link #triggerSample} and {@link #intensity}
+   */
+  long next(ControllerThreadState thread, int siteID, int slot) {
+    long hit = thread.siteHits.getAndIncrement(slot);
+    long threadSeed = Hashing.mix(seed ^ thread.logicalID);
+
+    return Hashing.mix(threadSeed + siteID * Hashing.GOLDEN_GAMMA + Hashing.mix(hit));
+  }
+
+  /**
+   * @return hit index of the thread's last hit of the slot, see {@link #next}
+   */
+  static long lastHit(ControllerThreadState thread, int slot) {
+    return thread.siteHits.get(slot) - 1;
+  }
+
+  /**
+   * @return uniformly distributed int deciding whether noise is triggered
+   */
+  static int triggerSample(long decision) {
+    return (int) (decision >>> Integer.SIZE);
+  }
+
+  /**
+   * @return intensity of the decision, as a fraction of the intensity range
+   */
+  double intensity(long decision) {
+    return intensities.get(decision);
+  }
+
+  long getSeed() {
+    return seed;
+  }
+}
@@ -0,0 +1,65 @@
+package oscar.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the injected delay per second, globally and per thread, so noise cannot slow a program down by more than
+ * a fixed budget. Both limits are token buckets holding up to one second of budget, kept as the time at which the
+ * bucket is full again (generic cell rate algorithm), so the global bucket is a single atomic long.
+ */
+final class NoiseGovernor {
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  // Wall clock nanoseconds the bucket needs to refill one nanosecond of delay, 0 if unlimited
+  private final double globalRefillRate;
+  private final double threadRefillRate;
+  private final AtomicLong globalFullTime = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * @param globalBudget maximum delay injected per second across all threads, in nanoseconds, or 0 if unlimited
+   * @param threadBudget maximum delay injected per second in a single thread, in nanoseconds, or 0 if unlimited
+   */
+  NoiseGovernor(long globalBudget, long threadBudget) {
+    this.globalRefillRate = globalBudget > 0 ? (double) NANOS_PER_SECOND / globalBudget : 0;
+    this.threadRefillRate = threadBudget > 0 ? (double) NANOS_PER_SECOND / threadBudget : 0;
+  }
+
+  /**
+   * Take a delay from the calling thread's and the global budgets
+   *
+   * @param thread calling thread
+   * @param delay  delay to inject, in nanoseconds
+   * @return true if both budgets allow the delay, in which case it is charged to them
+   */
+  boolean tryAcquire(ControllerThreadState thread, long delay) {
+    long now = System.nanoTime();
+    long threadFullTime = 0;
+
+    if (threadRefillRate > 0) {
+      threadFullTime = Math.max(thread.budgetFullTime, now) + (long) (delay * threadRefillRate);
+
+      if (threadFullTime - now > NANOS_PER_SECOND)
+        return false;
+    }
+
+    if (globalRefillRate > 0) {
+      long refill = (long) (delay * globalRefillRate);
+
+      while (true) {
+        long fullTime = globalFullTime.get();
+        long newFullTime = Math.max(fullTime, now) + refill;
+
+        if (newFullTime - now > NANOS_PER_SECOND)
+          return false;
+
+        if (globalFullTime.compareAndSet(fullTime, newFullTime))
+          break;
+      }
+    }
+
+    if (threadRefillRate > 0)
+      thread.budgetFullTime = threadFullTime;
+
+    return true;
+  }
+}
@@ -0,0 +1,103 @@
+package oscar.controller;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rendezvous holding threads that trigger noise until enough of them arrived, or the group timed out, and then
+ * releasing them together. Released threads reach the noised monitor, lock or field at the same time, so they
+ * contend on it for real instead of relying on one delayed thread to overlap with another.
+ * <p>
+ * Every group is bounded by its timeout, counted from its first arrival, so a thread arriving alone, or while the
+ * others are blocked on a lock it holds, is only held for the timeout.
+ */
+final class NoiseRendezvous {
+  private final int parties;
+  private final long timeoutNanos;
+
+  // Group being filled, guarded by the rendezvous lock
+  private Group filling = null;
+
+  /**
+   * @param parties       number of threads released together
+   * @param timeoutMicros time after which a group is released with the threads that arrived
+   */
+  NoiseRendezvous(int parties, long timeoutMicros) {
+    this.parties = parties;
+    this.timeoutNanos = timeoutMicros * 1_000;
+  }
+
+  /**
+   * Wait at the rendezvous until the calling thread's group is released
+   */
+  void await() {
+    Group group;
+    boolean last;
+
+    synchronized (this) {
+      if (filling == null)
+        filling = new Group(System.nanoTime() + timeoutNanos, parties);
+
+      group = filling;
+      group.waiters[group.count++] = Thread.currentThread();
+
+      last = group.count == parties;
+
+      if (last)
+        filling = null;
+    }
+
+    if (last) {
+      release(group);
+      return;
+    }
+
+    boolean interrupted = false;
+
+    while (!group.released) {
+      long remaining = group.deadline - System.nanoTime();
+
+      // The first waiter to time out releases the whole group, an interrupted waiter releases it early
+      if (remaining <= 0 || interrupted) {
+        release(group);
+        break;
+      }
+
+      LockSupport.parkNanos(this, remaining);
+      interrupted |= Thread.interrupted();
+    }
+
+    // Restore the interrupt for the instrumented program to handle
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  private void release(Group group) {
+    int count;
+
+    synchronized (this) {
+      if (group.released)
+        return;
+
+      group.released = true;
+      count = group.count;
+
+      if (filling == group)
+        filling = null;
+    }
+
+    for (int i = 0; i < count; i++)
+      LockSupport.unpark(group.waiters[i]);
+  }
+
+  private static final class Group {
+    private final long deadline;
+    private final Thread[] waiters;
+    private int count = 0;
+    private volatile boolean released = false;
+
+    private Group(long deadline, int parties) {
+      this.deadline = deadline;
+      this.waiters = new Thread[parties];
+    }
+  }
+}
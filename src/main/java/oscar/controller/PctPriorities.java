@@ -0,0 +1,68 @@
+package oscar.controller;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread priorities of probabilistic concurrency testing (PCT). Every thread gets a random priority when it first
+ * hits a noise site, and d - 1 change points, placed at random among the first k site hits, demote the thread
+ * hitting them below every other thread. Lower priority threads are delayed for longer, approximating the PCT
+ * scheduler, which exposes a bug of depth d in a run of n threads with probability of at least 1 / (n * k^(d-1)).
+ */
+final class PctPriorities {
+  // Initial priorities are drawn from [depth, depth + PRIORITY_RANGE), change points demote to [1, depth)
+  private static final int PRIORITY_RANGE = 1 << 20;
+
+  private final long seed;
+  private final int depth;
+  private final long[] changePoints;
+  private final AtomicLong hits = new AtomicLong(0);
+
+  /**
+   * @param seed  seed of the priorities and change points
+   * @param depth bug depth, the number of change points plus one
+   * @param steps expected number of site hits of the run, change points are placed among them
+   */
+  PctPriorities(long seed, int depth, long steps) {
+    SplittableRandom random = new SplittableRandom(seed);
+
+    this.seed = seed;
+    this.depth = depth;
+    this.changePoints = new long[depth - 1];
+
+    for (int i = 0; i < changePoints.length; i++)
+      changePoints[i] = 1 + random.nextLong(steps);
+
+    Arrays.sort(changePoints);
+  }
+
+  /**
+   * Count a site hit, demoting the thread if it reaches a change point
+   *
+   * @param thread calling thread
+   */
+  void hit(ControllerThreadState thread) {
+    if (thread.pctPriority == 0)
+      thread.pctPriority = depth + new SplittableRandom(seed ^ Hashing.mix(thread.logicalID)).nextInt(PRIORITY_RANGE);
+
+    long hit = hits.incrementAndGet();
+
+    // The i-th change point demotes to priority d - i, below every initial priority and every earlier demotion
+    for (int i = 0; i < changePoints.length; i++)
+      if (changePoints[i] == hit)
+        thread.pctPriority = depth - 1 - i;
+  }
+
+  /**
+   * @param thread calling thread
+   * @return the thread's delay as a fraction of the intensity range, in [0, 1), longer for lower priorities
+   */
+  double delay(ControllerThreadState thread) {
+    return 1 - (double) thread.pctPriority / (depth + PRIORITY_RANGE);
+  }
+
+  long[] getChangePoints() {
+    return changePoints.clone();
+  }
+}
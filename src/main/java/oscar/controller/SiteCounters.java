@@ -0,0 +1,86 @@
+package oscar.controller;
+
+import java.util.Arrays;
+
+/**
+ * Counters of a single thread, keyed by policy slot. Threads usually reach a handful of the program's sites, so
+ * the counters are kept in a small open addressing table growing with the sites the thread reached, instead of
+ * in an array sized to the whole site table.
+ */
+final class SiteCounters {
+  private static final int INITIAL_CAPACITY = 8;
+  private static final int EMPTY = -1;
+
+  private int[] slots = emptySlots(INITIAL_CAPACITY);
+  private long[] values = new long[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /**
+   * @return the slot's counter, 0 if it was never set
+   */
+  long get(int slot) {
+    int mask = slots.length - 1;
+
+    for (int i = index(slot, mask); slots[i] != EMPTY; i = (i + 1) & mask)
+      if (slots[i] == slot)
+        return values[i];
+
+    return 0;
+  }
+
+  /**
+   * @return the slot's counter before incrementing it
+   */
+  long getAndIncrement(int slot) {
+    int i = find(slot);
+    return values[i]++;
+  }
+
+  void set(int slot, long value) {
+    int i = find(slot);
+    values[i] = value;
+  }
+
+  // Index of the slot's entry, inserting it if missing
+  private int find(int slot) {
+    int mask = slots.length - 1;
+    int i = index(slot, mask);
+
+    for (; slots[i] != EMPTY; i = (i + 1) & mask)
+      if (slots[i] == slot)
+        return i;
+
+    // Keep the table at most half full
+    if (++size * 2 > slots.length) {
+      grow();
+      return find(slot);
+    }
+
+    slots[i] = slot;
+    return i;
+  }
+
+  private void grow() {
+    int[] oldSlots = slots;
+    long[] oldValues = values;
+
+    slots = emptySlots(oldSlots.length * 2);
+    values = new long[oldSlots.length * 2];
+    size = 0;
+
+    for (int i = 0; i < oldSlots.length; i++)
+      if (oldSlots[i] != EMPTY)
+        values[find(oldSlots[i])] = oldValues[i];
+  }
+
+  private static int index(int slot, int mask) {
+    int hash = slot * 0x9e3779b9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static int[] emptySlots(int capacity) {
+    int[] slots = new int[capacity];
+    Arrays.fill(slots, EMPTY);
+    return slots;
+  }
+}
@@ -0,0 +1,157 @@
+package oscar.controller;
+
+import oscar.controller.noise.NoiseSite;
+import oscar.controller.util.output.FileOutput;
+import oscar.utils.logger.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Per-site runtime statistics. Counters are striped by thread ordinal, so threads only contend with the
+ * few threads sharing their stripe, and are summed when written at the end of the run. Programs with many sites get
+ * fewer stripes, keeping the counters within {@link #MAX_COUNTER_BYTES}, and stripes are allocated when a thread
+ * first records to them.
+ */
+final class SiteStatistics {
+  private static final Logger logger = LoggerFactory.getInstance(SiteStatistics.class);
+
+  private static final String HEADER = "id\tlocation\tclass\tmethod\tline\toffset\t" +
+                                           "calls\ttriggers\tbudget_skips\tinjected_ns\tthreads\tcontroller_ns";
+  private static final int MAX_STRIPES = 64;
+  private static final long MAX_COUNTER_BYTES = 1 << 24;
+
+  // Counter fields of a site within a stripe
+  private static final int CALLS = 0;
+  private static final int TRIGGERS = 1;
+  private static final int INJECTED_NANOS = 2;
+  private static final int CONTROLLER_NANOS = 3;
+  private static final int BUDGET_SKIPS = 4;
+  private static final int FIELDS = 5;
+
+  private final int slots;
+  private final AtomicReferenceArray<AtomicLongArray> stripes;
+  private final AtomicIntegerArray distinctThreads;
+
+  /**
+   * @param slots number of policy slots, including the default slot for unknown sites
+   */
+  SiteStatistics(int slots) {
+    int stripeCount = 1;
+    while (stripeCount < Math.min(MAX_STRIPES, 2 * Runtime.getRuntime().availableProcessors()))
+      stripeCount <<= 1;
+
+    while (stripeCount > 1 && (long) stripeCount * slots * FIELDS * Long.BYTES > MAX_COUNTER_BYTES)
+      stripeCount >>= 1;
+
+    this.slots = slots;
+    this.stripes = new AtomicReferenceArray<>(stripeCount);
+    this.distinctThreads = new AtomicIntegerArray(slots);
+  }
+
+  /**
+   * @param thread          calling thread
+   * @param slot            policy slot of the site
+   * @param injectedNanos   time spent in the noise effect, negative if noise was not triggered
+   * @param controllerNanos time spent in the controller, excluding the noise effect
+   */
+  void record(ControllerThreadState thread, int slot, long injectedNanos, long controllerNanos) {
+    AtomicLongArray stripe = stripe(thread);
+    int base = slot * FIELDS;
+
+    stripe.getAndIncrement(base + CALLS);
+    stripe.getAndAdd(base + CONTROLLER_NANOS, controllerNanos);
+
+    if (injectedNanos >= 0) {
+      stripe.getAndIncrement(base + TRIGGERS);
+      stripe.getAndAdd(base + INJECTED_NANOS, injectedNanos);
+    }
+
+    if (thread.seenSites == null)
+      thread.seenSites = new SiteCounters();
+
+    if (thread.seenSites.getAndIncrement(slot) == 0)
+      distinctThreads.getAndIncrement(slot);
+  }
+
+  /**
+   * Count a triggered noise call that was skipped because the noise budget was exhausted
+   *
+   * @param thread calling thread
+   * @param slot   policy slot of the site
+   */
+  void recordBudgetSkip(ControllerThreadState thread, int slot) {
+    stripe(thread).getAndIncrement(slot * FIELDS + BUDGET_SKIPS);
+  }
+
+  private AtomicLongArray stripe(ControllerThreadState thread) {
+    int index = thread.ordinal & (stripes.length() - 1);
+    AtomicLongArray stripe = stripes.get(index);
+
+    if (stripe == null) {
+      stripes.compareAndSet(index, null, new AtomicLongArray(slots * FIELDS));
+      stripe = stripes.get(index);
+    }
+
+    return stripe;
+  }
+
+  /**
+   * Write the statistics of every called site, joined with the site manifest, to a new output file
+   *
+   * @param sites manifest sites, indexed by id
+   */
+  void write(NoiseSite[] sites) {
+    File file = FileOutput.createOutputFile("oscar_site_stats", ".tsv");
+
+    try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+
+      for (int slot = 0; slot < slots; slot++) {
+        long[] totals = new long[FIELDS];
+
+        for (int i = 0; i < stripes.length(); i++) {
+          AtomicLongArray stripe = stripes.get(i);
+
+          if (stripe != null)
+            for (int field = 0; field < FIELDS; field++)
+              totals[field] += stripe.get(slot * FIELDS + field);
+        }
+
+        if (totals[CALLS] == 0)
+          continue;
+
+        // The last slot gathers every site missing from the manifest
+        NoiseSite site = slot < sites.length ? sites[slot] : null;
+        boolean unknown = slot == slots - 1 || site == null;
+
+        writer.write((slot == slots - 1 ? "-1" : Integer.toString(slot)) + "\t" +
+                         (unknown ? "UNKNOWN\t-\t-\t-1\t-1" :
+                              site.getLocation().name() + "\t" +
+                                  site.getClassName() + "\t" +
+                                  site.getMethodSignature() + "\t" +
+                                  site.getLine() + "\t" +
+                                  site.getBytecodeOffset()) + "\t" +
+                         totals[CALLS] + "\t" +
+                         totals[TRIGGERS] + "\t" +
+                         totals[BUDGET_SKIPS] + "\t" +
+                         totals[INJECTED_NANOS] + "\t" +
+                         distinctThreads.get(slot) + "\t" +
+                         totals[CONTROLLER_NANOS]);
+        writer.newLine();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write site statistics to '" + file.getPath() + "'.", e);
+    }
+
+    logger.info("Wrote site statistics to '" + file.getPath() + "'.");
+  }
+}
@@ -0,0 +1,32 @@
+package oscar.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the last noise site hit across all threads, so consecutive hits can be recorded as site transitions.
+ * Events pack the thread ordinal in their top half and the policy slot in their bottom half.
+ */
+final class SiteTransitions {
+  static final long NO_EVENT = -1;
+
+  private final AtomicLong lastEvent = new AtomicLong(NO_EVENT);
+
+  /**
+   * Record a hit of a site
+   *
+   * @param thread calling thread
+   * @param slot   policy slot of the site
+   * @return the previous event, or {@link #NO_EVENT} if this is the first hit
+   */
+  long hit(ControllerThreadState thread, int slot) {
+    return lastEvent.getAndSet(((long) thread.ordinal << Integer.SIZE) | slot);
+  }
+
+  static int getSlot(long event) {
+    return (int) event;
+  }
+
+  static boolean isOtherThread(long event, ControllerThreadState thread) {
+    return event != NO_EVENT && (int) (event >>> Integer.SIZE) != thread.ordinal;
+  }
+}
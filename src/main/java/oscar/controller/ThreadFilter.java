@@ -0,0 +1,70 @@
+package oscar.controller;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Filter of the threads that get noise, by name pattern, thread group, creation ordinal (see {@link ThreadLineage})
+ * and a number of randomly chosen threads. Every configured filter must match. Threads are matched once, when they
+ * first hit a site, and the result is kept in their {@link ControllerThreadState}. Each thread is chosen at random
+ * with odds of the number of random threads over the expected number of threads, from a hash of the seed and its
+ * logical id, so the choice depends neither on creation order nor on the order threads reach sites.
+ */
+final class ThreadFilter {
+  private final Pattern namePattern;
+  private final long seed;
+  private final String groupName;
+  private final Set<Integer> ordinals;
+  private final long randomThreshold;
+
+  /**
+   * @param namePattern   pattern the whole thread name must match, or null for any
+   * @param groupName     name of the thread group, or null for any
+   * @param ordinals      creation ordinals of the noised threads, empty for any
+   * @param randomThreads   expected number of threads chosen at random, 0 for all
+   * @param expectedThreads expected number of threads of the program, 0 for twice the random threads
+   * @param seed            seed of the random choice
+   */
+  ThreadFilter(String namePattern, String groupName, Set<Integer> ordinals, int randomThreads, int expectedThreads,
+               long seed) {
+    this.namePattern = namePattern != null ? Pattern.compile(namePattern) : null;
+    this.groupName = groupName;
+    this.ordinals = new HashSet<>(ordinals);
+    this.seed = seed;
+
+    if (randomThreads == 0) {
+      randomThreshold = -1;
+    } else {
+      double odds = (double) randomThreads / (expectedThreads > 0 ? expectedThreads : 2 * randomThreads);
+      randomThreshold = odds >= 1 ? -1 : (long) (odds * (1L << 53));
+    }
+  }
+
+  /**
+   * @return true if any filter is configured
+   */
+  boolean isFiltering() {
+    return namePattern != null || groupName != null || !ordinals.isEmpty() || randomThreshold >= 0;
+  }
+
+  boolean matches(ControllerThreadState state) {
+    Thread thread = state.thread;
+
+    if (namePattern != null && !namePattern.matcher(thread.getName()).matches())
+      return false;
+
+    if (groupName != null) {
+      ThreadGroup group = thread.getThreadGroup();
+
+      if (group == null || !groupName.equals(group.getName()))
+        return false;
+    }
+
+    if (!ordinals.isEmpty() && !ordinals.contains(state.creationOrdinal))
+      return false;
+
+    // The top 53 bits of the hash are uniform over [0, 2^53), compared to the odds scaled to the same range
+    return randomThreshold < 0 || Hashing.mix(seed ^ state.logicalID) >>> 11 < randomThreshold;
+  }
+}
@@ -0,0 +1,53 @@
+package oscar.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Logical thread identity derived from the thread creation tree. A thread's id is a hash of its parent's id and
+ * of the number of threads the parent created before it, so the same program creating threads in the same order
+ * gives them the same ids in every run, unlike Java or OS thread ids.
+ * <p>
+ * Threads created by a thread that never reached the controller, e.g. before it started, are roots of their own
+ * tree, identified by their name and the order in which roots are first seen.
+ * <p>
+ * Threads also get a creation ordinal, counting every thread with a lineage in creation order, starting from 0 for
+ * the thread starting the controller.
+ */
+final class ThreadLineage {
+  private static final AtomicInteger rootCount = new AtomicInteger(0);
+  private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+  private static final InheritableThreadLocal<ThreadLineage> lineages = new InheritableThreadLocal<ThreadLineage>() {
+    @Override
+    protected ThreadLineage initialValue() {
+      String name = Thread.currentThread().getName();
+      return new ThreadLineage(Hashing.mix(name.hashCode() * Hashing.GOLDEN_GAMMA + rootCount.getAndIncrement()));
+    }
+
+    // Called by the parent thread while it creates the child
+    @Override
+    protected ThreadLineage childValue(ThreadLineage parent) {
+      return parent.child();
+    }
+  };
+
+  final long id;
+  final int ordinal;
+  private int children = 0;
+
+  private ThreadLineage(long id) {
+    this.id = id;
+    this.ordinal = threadCount.getAndIncrement();
+  }
+
+  private ThreadLineage child() {
+    return new ThreadLineage(Hashing.mix(id + ++children * Hashing.GOLDEN_GAMMA));
+  }
+
+  /**
+   * @return the lineage of the calling thread
+   */
+  static ThreadLineage current() {
+    return lineages.get();
+  }
+}
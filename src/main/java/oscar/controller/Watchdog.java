@@ -0,0 +1,205 @@
+package oscar.controller;
+
+import oscar.controller.noise.NoiseLocation;
+import oscar.controller.util.output.FileOutput;
+import oscar.utils.logger.LoggerFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Watchdog aborting runs that deadlocked or stalled, instead of letting them idle until an outer timeout. A daemon
+ * thread polls the JVM for deadlocked threads and checks that threads still reach sites they never reached before,
+ * so threads spinning through the same sites in a livelock count as stalled. When either fails, it writes the thread
+ * stacks and the last sites reached by every thread, not the last trace events, to
+ * {@code oscar_output/oscar_watchdog_<timestamp>.txt} and ends the program with {@link #EXIT_CODE}.
+ */
+final class Watchdog {
+  private static final Logger logger = LoggerFactory.getInstance(Watchdog.class);
+
+  public static final int EXIT_CODE = 3;
+
+  private static final int RECENT_SITES = 1 << 4;
+  private static final long MAX_POLL_MILLIS = 1000;
+  private static final long HALT_DELAY_MILLIS = 5000;
+
+  private final long stallMillis;
+  private final LongSupplier calls;
+  private final LongAdder progress = new LongAdder();
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  // Recent sites of the threads that reached a site, dropped with their thread
+  private final Map<Thread, RecentSites> recentSites = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * @param stallMillis time without any thread reaching a new site after which the run is stalled (0 to never stall)
+   * @param calls       number of site calls so far, for diagnostics
+   */
+  Watchdog(long stallMillis, LongSupplier calls) {
+    this.stallMillis = stallMillis;
+    this.calls = calls;
+  }
+
+  void start() {
+    // Controller threads do not inherit thread locals, so they take no part in the thread lineage
+    Thread watchdog = new Thread(null, this::watch, "oscar-watchdog", 0, false);
+    watchdog.setDaemon(true);
+    watchdog.start();
+  }
+
+  /**
+   * Remember a site reached by the thread, for diagnostics, and count the thread's first hit of the site as progress
+   *
+   * @param thread calling thread
+   * @param siteID site id
+   */
+  void record(ControllerThreadState thread, int siteID) {
+    RecentSites recent = thread.recentSites;
+
+    if (recent == null) {
+      recent = thread.recentSites = new RecentSites();
+      recentSites.put(thread.thread, recent);
+    }
+
+    recent.sites[recent.count++ & (RECENT_SITES - 1)] = siteID;
+
+    if (siteID >= 0 && recent.seen.getAndIncrement(siteID) == 0)
+      progress.increment();
+  }
+
+  private void watch() {
+    long pollMillis = stallMillis > 0 ? Math.max(10, Math.min(MAX_POLL_MILLIS, stallMillis / 4)) : MAX_POLL_MILLIS;
+    long lastSites = progress.sum();
+    long lastProgress = System.nanoTime();
+
+    while (true) {
+      try {
+        Thread.sleep(pollMillis);
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      long[] deadlocked = threads.findDeadlockedThreads();
+
+      if (deadlocked != null) {
+        abort("Deadlock detected between " + deadlocked.length + " threads.", deadlocked);
+        return;
+      }
+
+      long sites = progress.sum();
+      long now = System.nanoTime();
+
+      if (sites != lastSites) {
+        lastSites = sites;
+        lastProgress = now;
+      } else if (stallMillis > 0 && now - lastProgress >= stallMillis * 1_000_000) {
+        abort("No thread reached a new noise site for " + stallMillis + "ms.", null);
+        return;
+      }
+    }
+  }
+
+  private void abort(String reason, long[] deadlocked) {
+    logger.severe(reason + " Aborting with exit code " + EXIT_CODE + ".");
+
+    try {
+      File file = dump(reason, deadlocked);
+      logger.severe("Thread dump written to '" + file.getPath() + "'.");
+    } catch (RuntimeException e) {
+      logger.severe("Failed to write thread dump: " + e.getMessage());
+    }
+
+    // Shutdown hooks of the program may block on the same locks, halt if exiting takes too long
+    Thread halt = new Thread(null, () -> {
+      try {
+        Thread.sleep(HALT_DELAY_MILLIS);
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      Runtime.getRuntime().halt(EXIT_CODE);
+    }, "oscar-watchdog-halt", 0, false);
+    halt.setDaemon(true);
+    halt.start();
+
+    Controller.end(EXIT_CODE);
+  }
+
+  private File dump(String reason, long[] deadlocked) {
+    File file = FileOutput.createOutputFile("oscar_watchdog", ".txt");
+
+    try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+      writer.println(reason);
+      writer.println("Noise calls: " + calls.getAsLong());
+      writer.println("Distinct sites reached by threads: " + progress.sum());
+
+      if (deadlocked != null) {
+        writer.println();
+        writer.println("Deadlocked threads:");
+
+        for (ThreadInfo info : threads.getThreadInfo(deadlocked, true, true))
+          if (info != null)
+            writer.println("\"" + info.getThreadName() + "\" waiting on " + info.getLockName() + " held by \"" +
+                               info.getLockOwnerName() + "\"");
+      }
+
+      for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+        Thread thread = entry.getKey();
+
+        writer.println();
+        writer.println("\"" + thread.getName() + "\" #" + thread.getId() + " " + thread.getState());
+
+        RecentSites recent = recentSites.get(thread);
+        if (recent != null)
+          writer.println("  Last sites (not trace events): " + recent);
+
+        for (StackTraceElement frame : entry.getValue())
+          writer.println("    at " + frame);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write to file '" + file.getPath() + "'.", e);
+    }
+
+    return file;
+  }
+
+  /**
+   * Ring of the last sites reached by a thread, and the sites it ever reached, written by the thread only
+   */
+  static final class RecentSites {
+    private final int[] sites = new int[RECENT_SITES];
+    private final SiteCounters seen = new SiteCounters();
+    private int count = 0;
+
+    /**
+     * @return the last sites, oldest first
+     */
+    @Override
+    public String toString() {
+      int count = this.count;
+      StringBuilder builder = new StringBuilder();
+
+      for (int i = Math.max(0, count - RECENT_SITES); i < count; i++) {
+        int siteID = sites[i & (RECENT_SITES - 1)];
+        builder.append(i == Math.max(0, count - RECENT_SITES) ? "" : " ").append(siteID);
+
+        NoiseLocation location = Controller.getSiteLocation(siteID);
+        if (location != null)
+          builder.append(" (").append(location).append(")");
+      }
+
+      return builder.toString();
+    }
+  }
+}
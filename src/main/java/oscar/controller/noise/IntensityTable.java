@@ -0,0 +1,34 @@
+package oscar.controller.noise;
+
+import java.util.SplittableRandom;
+
+/**
+ * Table of precomputed intensity distribution samples, built once from the run seed and shared by all threads.
+ * Drawing a sample only indexes the table with a uniformly distributed hash, so it is lock-free and reproducible.
+ */
+public final class IntensityTable {
+  private static final int SIZE = 1 << 12;
+  private static final int MASK = SIZE - 1;
+
+  private final double[] samples = new double[SIZE];
+
+  /**
+   * @param distribution intensity distribution
+   * @param parameter    distribution parameter
+   * @param seed         seed of the samples
+   */
+  public IntensityTable(NoiseDistribution distribution, double parameter, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+
+    for (int i = 0; i < SIZE; i++)
+      samples[i] = distribution.sample(random.nextDouble(), parameter);
+  }
+
+  /**
+   * @param hash uniformly distributed hash, only its low bits are used
+   * @return a fraction of the intensity range, in [0, 1)
+   */
+  public double get(long hash) {
+    return samples[(int) hash & MASK];
+  }
+}
@@ -0,0 +1,21 @@
+package oscar.controller.noise;
+
+/**
+ * Scope in which noise site hits are counted for the hot site backoff
+ */
+public enum NoiseBackoffScope {
+  // No backoff, every hit is noised with the site's probability
+  NONE,
+  // Hits are counted across all threads
+  SITE,
+  // Hits are counted by each thread separately
+  THREAD;
+
+  public static NoiseBackoffScope fromString(String name) {
+    for (NoiseBackoffScope scope : values())
+      if (scope.name().equalsIgnoreCase(name))
+        return scope;
+
+    throw new RuntimeException("No noise backoff scope matches '" + name + "'.");
+  }
+}
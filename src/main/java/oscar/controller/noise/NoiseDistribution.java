@@ -0,0 +1,104 @@
+package oscar.controller.noise;
+
+/**
+ * Distribution of noise intensities within a site's intensity range. Every distribution maps a uniform sample
+ * to a fraction of the range, in [0, 1), and takes a single parameter whose meaning depends on the distribution.
+ */
+public enum NoiseDistribution {
+  // Every intensity in the range is equally likely
+  UNIFORM(0) {
+    @Override
+    double quantile(double u, double parameter) {
+      return u;
+    }
+
+    @Override
+    public void validate(double parameter) {}
+  },
+  // Exponential truncated to the range, the parameter is its mean as a fraction of the range
+  EXPONENTIAL(0.1) {
+    @Override
+    double quantile(double u, double parameter) {
+      return -parameter * Math.log(1 - u * (1 - Math.exp(-1 / parameter)));
+    }
+
+    @Override
+    public void validate(double parameter) {
+      if (parameter <= 0)
+        throw new RuntimeException("Invalid exponential distribution mean, must be higher than 0.");
+    }
+  },
+  // Short delays in the bottom tenth of the range and long delays in the top tenth, the parameter is
+  // the probability of a long delay
+  BIMODAL(0.05) {
+    @Override
+    double quantile(double u, double parameter) {
+      if (u < parameter)
+        return 0.9 + 0.1 * (u / parameter);
+
+      return 0.1 * ((u - parameter) / (1 - parameter));
+    }
+
+    @Override
+    public void validate(double parameter) {
+      if (parameter < 0 || parameter >= 1)
+        throw new RuntimeException("Invalid bimodal distribution long delay probability, must be between 0 and 1.");
+    }
+  },
+  // Pareto bounded to the range, with the range maximum 1000 times its scale. The parameter is the tail index,
+  // lower values give heavier tails.
+  PARETO(1) {
+    @Override
+    double quantile(double u, double parameter) {
+      double sample = Math.pow(1 - u * (1 - Math.pow(PARETO_BOUND, -parameter)), -1 / parameter);
+      return (sample - 1) / (PARETO_BOUND - 1);
+    }
+
+    @Override
+    public void validate(double parameter) {
+      if (parameter <= 0)
+        throw new RuntimeException("Invalid Pareto distribution tail index, must be higher than 0.");
+    }
+  };
+
+  private static final double PARETO_BOUND = 1000;
+
+  private final double defaultParameter;
+
+  NoiseDistribution(double defaultParameter) {
+    this.defaultParameter = defaultParameter;
+  }
+
+  /**
+   * @param u         uniform sample in [0, 1)
+   * @param parameter distribution parameter
+   * @return the matching fraction of the intensity range
+   */
+  abstract double quantile(double u, double parameter);
+
+  public abstract void validate(double parameter);
+
+  public double getDefaultParameter() {
+    return defaultParameter;
+  }
+
+  /**
+   * @param u         uniform sample in [0, 1)
+   * @param parameter distribution parameter
+   * @return a fraction of the intensity range, in [0, 1)
+   */
+  public double sample(double u, double parameter) {
+    double fraction = quantile(u, parameter);
+
+    // Guard against rounding at the edges of the range
+    return Math.max(0, Math.min(fraction, Math.nextDown(1.0)));
+  }
+
+  public static NoiseDistribution fromString(String name) {
+    for (NoiseDistribution distribution : values())
+      if (distribution.name().equalsIgnoreCase(name))
+        return distribution;
+
+    throw new RuntimeException("No noise intensity distribution matches '" + name + "'.");
+  }
+}
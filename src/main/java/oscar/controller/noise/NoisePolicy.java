@@ -0,0 +1,124 @@
+package oscar.controller.noise;
+
+import oscar.controller.util.ControllerOptions;
+import oscar.controller.util.ControllerSiteOptions;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-site noise policy, flattened into primitive arrays indexed by site id.
+ * The last slot holds the default policy for sites that are not in the manifest. Intensities are kept in nanoseconds.
+ */
+public final class NoisePolicy {
+  // Probabilities are compared against the top 24 bits of a random int
+  private static final int PROBABILITY_BITS = 24;
+  private static final int PROBABILITY_ONE = 1 << PROBABILITY_BITS;
+
+  private final boolean[] enabled;
+  private final int[] probabilityThresholds;
+  private final long[] minIntensities;
+  private final long[] intensityRanges;
+  private final int defaultSlot;
+
+  private NoisePolicy(int siteCount) {
+    this.enabled = new boolean[siteCount + 1];
+    this.probabilityThresholds = new int[siteCount + 1];
+    this.minIntensities = new long[siteCount + 1];
+    this.intensityRanges = new long[siteCount + 1];
+    this.defaultSlot = siteCount;
+  }
+
+  public static NoisePolicy build(ControllerOptions options, NoiseSite[] sites) {
+    TimeUnit unit = options.NoiseIntensityUnit;
+    int siteCount = sites.length;
+
+    for (int siteID : options.SiteOptions.keySet())
+      siteCount = Math.max(siteCount, siteID + 1);
+
+    NoisePolicy policy = new NoisePolicy(siteCount);
+
+    // Sites missing from the manifest have no known location, so they are only enabled if every location is
+    boolean allLocationsEnabled = true;
+    for (NoiseLocation location : NoiseLocation.values())
+      allLocationsEnabled &= isLocationEnabled(options, location);
+
+    for (int slot = 0; slot <= siteCount; slot++) {
+      NoiseSite site = slot < sites.length ? sites[slot] : null;
+
+      policy.enabled[slot] = site == null ? allLocationsEnabled : isLocationEnabled(options, site.getLocation());
+      policy.enabled[slot] &= !options.DisabledSites.contains(slot);
+      policy.set(slot, options.NoiseProbability, unit.toNanos(options.MinNoiseIntensity),
+                 unit.toNanos(options.MaxNoiseIntensity));
+    }
+
+    // Apply per-site overrides
+    for (Map.Entry<Integer, ControllerSiteOptions> entry : options.SiteOptions.entrySet()) {
+      int slot = entry.getKey();
+      ControllerSiteOptions siteOptions = entry.getValue();
+
+      if (siteOptions.Enabled != null)
+        policy.enabled[slot] = siteOptions.Enabled;
+
+      policy.set(
+          slot,
+          siteOptions.NoiseProbability != null ? siteOptions.NoiseProbability : options.NoiseProbability,
+          unit.toNanos(siteOptions.MinNoiseIntensity != null ? siteOptions.MinNoiseIntensity : options.MinNoiseIntensity),
+          unit.toNanos(siteOptions.MaxNoiseIntensity != null ? siteOptions.MaxNoiseIntensity : options.MaxNoiseIntensity)
+      );
+    }
+
+    return policy;
+  }
+
+  /**
+   * @param siteID noise site id
+   * @return the policy slot of the site, the default slot if the site is unknown
+   */
+  public int slot(int siteID) {
+    return siteID >= 0 && siteID < defaultSlot ? siteID : defaultSlot;
+  }
+
+  public boolean isEnabled(int slot) {
+    return enabled[slot];
+  }
+
+  /**
+   * @param slot         policy slot
+   * @param random       uniformly distributed random int
+   * @param backoffLevel number of times the slot's probability is halved
+   * @return true if noise should be triggered
+   */
+  public boolean shouldTrigger(int slot, int random, int backoffLevel) {
+    return (random >>> (Integer.SIZE - PROBABILITY_BITS)) < probabilityThresholds[slot] >> backoffLevel;
+  }
+
+  /**
+   * @param slot     policy slot
+   * @param fraction fraction of the intensity range, in [0, 1)
+   * @return a noise intensity within the slot's intensity range, in nanoseconds
+   */
+  public long intensity(int slot, double fraction) {
+    return minIntensities[slot] + (long) (fraction * intensityRanges[slot]);
+  }
+
+  public int size() {
+    return defaultSlot;
+  }
+
+  private void set(int slot, float probability, long minIntensity, long maxIntensity) {
+    if (probability < 0 || probability > 1)
+      throw new RuntimeException("Invalid noise probability for site " + slot + ", must be between 0 and 1.");
+
+    if (minIntensity < 0 || minIntensity > maxIntensity)
+      throw new RuntimeException("Invalid noise intensity range for site " + slot + ".");
+
+    probabilityThresholds[slot] = (int) Math.ceil(probability * PROBABILITY_ONE);
+    minIntensities[slot] = minIntensity;
+    intensityRanges[slot] = maxIntensity - minIntensity + 1;
+  }
+
+  private static boolean isLocationEnabled(ControllerOptions options, NoiseLocation location) {
+    return options.noiseCategories.contains(location.getCategory()) || options.NoiseLocations.contains(location);
+  }
+}
@@ -0,0 +1,59 @@
+package oscar.controller.noise;
+
+public final class NoiseSite {
+  private final int id;
+  private final NoiseLocation location;
+  private final String className;
+  private final String methodSignature;
+  private final int line;
+  private final int bytecodeOffset;
+  private final boolean inMonitor;
+
+  public NoiseSite(int id, NoiseLocation location, String className, String methodSignature, int line, int bytecodeOffset,
+                   boolean inMonitor) {
+    this.id = id;
+    this.location = location;
+    this.className = className;
+    this.methodSignature = methodSignature;
+    this.line = line;
+    this.bytecodeOffset = bytecodeOffset;
+    this.inMonitor = inMonitor;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public NoiseLocation getLocation() {
+    return location;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public String getMethodSignature() {
+    return methodSignature;
+  }
+
+  /**
+   * @return source line of the instrumented statement, or -1 if the class has no line number table
+   */
+  public int getLine() {
+    return line;
+  }
+
+  /**
+   * @return bytecode offset of the instrumented statement in the original method, or -1 if unknown
+   */
+  public int getBytecodeOffset() {
+    return bytecodeOffset;
+  }
+
+  /**
+   * @return true if the instrumented statement runs while its method holds a monitor
+   */
+  public boolean isInMonitor() {
+    return inMonitor;
+  }
+}
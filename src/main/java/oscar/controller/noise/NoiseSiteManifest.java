@@ -0,0 +1,115 @@
+package oscar.controller.noise;
+
+import oscar.utils.logger.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Side manifest mapping every instrumented noise site id to its location in the original program.
+ * The engine writes it next to the instrumented classes and the controller reads it back from the classpath,
+ * so the instrumented program only needs to carry the integer site ids.
+ */
+public final class NoiseSiteManifest {
+  private static final Logger logger = LoggerFactory.getInstance(NoiseSiteManifest.class);
+
+  public static final String FILENAME = "oscar_sites.tsv";
+  private static final String HEADER = "id\tlocation\tclass\tmethod\tline\toffset\tmonitor";
+
+  // Manifests written before sites recorded whether they are inside a monitor
+  private static final String HEADER_WITHOUT_MONITOR = "id\tlocation\tclass\tmethod\tline\toffset";
+
+  public static void write(Path file, Collection<NoiseSite> sites) {
+    List<NoiseSite> sortedSites = new ArrayList<>(sites);
+    sortedSites.sort(Comparator.comparingInt(NoiseSite::getId));
+
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+
+      for (NoiseSite site : sortedSites) {
+        writer.write(site.getId() + "\t" +
+                         site.getLocation().name() + "\t" +
+                         site.getClassName() + "\t" +
+                         site.getMethodSignature() + "\t" +
+                         site.getLine() + "\t" +
+                         site.getBytecodeOffset() + "\t" +
+                         site.isInMonitor());
+        writer.newLine();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write noise site manifest '" + file + "'.", e);
+    }
+  }
+
+  /**
+   * Load the manifest bundled with the instrumented program
+   *
+   * @return sites indexed by their id, or an empty array if no manifest is found
+   */
+  public static NoiseSite[] load() {
+    InputStream stream = NoiseSiteManifest.class.getClassLoader().getResourceAsStream(FILENAME);
+
+    if (stream == null) {
+      logger.warning("Noise site manifest '" + FILENAME + "' not found in classpath.");
+      return new NoiseSite[0];
+    }
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      return read(reader);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read noise site manifest '" + FILENAME + "'.", e);
+    }
+  }
+
+  private static NoiseSite[] read(BufferedReader reader) throws IOException {
+    ArrayList<NoiseSite> sites = new ArrayList<>();
+    int maxId = -1;
+
+    String line = reader.readLine();
+    if (line == null || !(line.equals(HEADER) || line.equals(HEADER_WITHOUT_MONITOR)))
+      throw new RuntimeException("Invalid noise site manifest header.");
+
+    int fieldCount = line.split("\t").length;
+
+    while ((line = reader.readLine()) != null) {
+      if (line.isEmpty())
+        continue;
+
+      String[] fields = line.split("\t");
+
+      if (fields.length != fieldCount)
+        throw new RuntimeException("Invalid noise site manifest entry '" + line + "'.");
+
+      try {
+        NoiseSite site = new NoiseSite(
+            Integer.parseInt(fields[0]),
+            NoiseLocation.valueOf(fields[1]),
+            fields[2],
+            fields[3],
+            Integer.parseInt(fields[4]),
+            Integer.parseInt(fields[5]),
+            fieldCount > 6 && Boolean.parseBoolean(fields[6])
+        );
+
+        sites.add(site);
+        maxId = Math.max(maxId, site.getId());
+      } catch (IllegalArgumentException e) {
+        throw new RuntimeException("Invalid noise site manifest entry '" + line + "'.", e);
+      }
+    }
+
+    NoiseSite[] indexedSites = new NoiseSite[maxId + 1];
+    for (NoiseSite site : sites)
+      indexedSites[site.getId()] = site;
+
+    return indexedSites;
+  }
+}
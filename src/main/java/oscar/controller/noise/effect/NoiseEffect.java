@@ -0,0 +1,38 @@
+package oscar.controller.noise.effect;
+
+/**
+ * Perturbation applied by the controller when noise is triggered at a site.
+ * Custom effects can be selected by class name, they must provide a public no-argument constructor.
+ */
+public interface NoiseEffect {
+  /**
+   * Apply noise to the calling thread
+   *
+   * @param intensity noise intensity, in nanoseconds
+   */
+  void apply(long intensity) throws InterruptedException;
+
+  static NoiseEffect fromString(String name) {
+    switch (name.toLowerCase()) {
+      case "sleep":
+        return new SleepEffect();
+      case "park":
+        return new ParkEffect();
+      case "spin":
+        return new SpinEffect();
+      case "yield":
+        return new YieldEffect();
+    }
+
+    try {
+      Class<?> effectClass = Class.forName(name);
+
+      if (!NoiseEffect.class.isAssignableFrom(effectClass))
+        throw new RuntimeException("Class '" + name + "' is not a noise effect.");
+
+      return (NoiseEffect) effectClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("No noise effect matches '" + name + "'.", e);
+    }
+  }
+}
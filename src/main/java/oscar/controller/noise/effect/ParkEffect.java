@@ -0,0 +1,24 @@
+package oscar.controller.noise.effect;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Parks the thread until the noise duration elapses, with the timer resolution of the platform (usually microseconds).
+ */
+public final class ParkEffect implements NoiseEffect {
+  @Override
+  public void apply(long intensity) throws InterruptedException {
+    long deadline = System.nanoTime() + intensity;
+    long remaining = intensity;
+
+    // Parking may return early, so park again until the deadline
+    while (remaining > 0) {
+      LockSupport.parkNanos(this, remaining);
+
+      if (Thread.interrupted())
+        throw new InterruptedException();
+
+      remaining = deadline - System.nanoTime();
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package oscar.controller.noise.effect;
+
+/**
+ * Sleeps the thread. Thread.sleep has a millisecond granularity on most platforms.
+ */
+public final class SleepEffect implements NoiseEffect {
+  private static final long NANOS_PER_MILLI = 1_000_000;
+
+  @Override
+  public void apply(long intensity) throws InterruptedException {
+    Thread.sleep(intensity / NANOS_PER_MILLI, (int) (intensity % NANOS_PER_MILLI));
+  }
+}
@@ -0,0 +1,51 @@
+package oscar.controller.noise.effect;
+
+/**
+ * Busy-spins the thread, keeping it on its CPU. Spin loops are calibrated on creation, so the clock is only read
+ * between blocks of spins sized from the remaining time, at most about a microsecond long. Every delay is bounded by
+ * the clock, a miscalibrated loop only changes how often it is read.
+ */
+public final class SpinEffect implements NoiseEffect {
+  private static final int WARMUP_CALLS = 10_000;
+  private static final int WARMUP_SPINS = 50;
+  private static final int CALIBRATION_ROUNDS = 5;
+  private static final int CALIBRATION_SPINS = 100_000;
+  private static final long NANOS_PER_BLOCK = 1_000;
+
+  private final double spinsPerNano;
+  private final long spinsPerBlock;
+
+  public SpinEffect() {
+    // Run the loop until it is compiled first, measuring it interpreted underestimates the spins per nanosecond
+    for (int call = 0; call < WARMUP_CALLS; call++)
+      spin(WARMUP_SPINS);
+
+    // Keep the fastest round, slower rounds were most likely descheduled
+    long bestRound = Long.MAX_VALUE;
+
+    for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+      long start = System.nanoTime();
+      spin(CALIBRATION_SPINS);
+      bestRound = Math.min(bestRound, System.nanoTime() - start);
+    }
+
+    this.spinsPerNano = (double) CALIBRATION_SPINS / Math.max(1, bestRound);
+    this.spinsPerBlock = Math.max(1, (long) (spinsPerNano * NANOS_PER_BLOCK));
+  }
+
+  @Override
+  public void apply(long intensity) {
+    long now = System.nanoTime();
+    long deadline = now + intensity;
+
+    while (now < deadline) {
+      spin(Math.max(1, Math.min(spinsPerBlock, (long) ((deadline - now) * spinsPerNano))));
+      now = System.nanoTime();
+    }
+  }
+
+  private static void spin(long spins) {
+    for (long i = 0; i < spins; i++)
+      Thread.onSpinWait();
+  }
+}
@@ -0,0 +1,15 @@
+package oscar.controller.noise.effect;
+
+/**
+ * Yields the thread's CPU until the noise duration elapses, yielding at least once.
+ */
+public final class YieldEffect implements NoiseEffect {
+  @Override
+  public void apply(long intensity) {
+    long deadline = System.nanoTime() + intensity;
+
+    do {
+      Thread.yield();
+    } while (System.nanoTime() < deadline);
+  }
+}
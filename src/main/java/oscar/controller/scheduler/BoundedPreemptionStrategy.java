@@ -0,0 +1,37 @@
+package oscar.controller.scheduler;
+
+import java.util.SplittableRandom;
+
+/**
+ * Keeps the running thread going, switching to a random waiting thread at most a bounded number of times.
+ * Switching away from a thread that stalled outside the controller is not a preemption.
+ */
+public final class BoundedPreemptionStrategy implements SchedulingStrategy {
+  private final SplittableRandom random;
+  private int preemptionsLeft;
+
+  public BoundedPreemptionStrategy(long seed, int preemptionBound) {
+    this.random = new SplittableRandom(seed);
+    this.preemptionsLeft = preemptionBound;
+  }
+
+  @Override
+  public int pick(int[] candidates, int count, int previous) {
+    int previousIndex = -1;
+
+    for (int i = 0; i < count; i++)
+      if (candidates[i] == previous)
+        previousIndex = i;
+
+    if (previousIndex == -1)
+      return random.nextInt(count);
+
+    int picked = random.nextInt(count);
+
+    if (picked == previousIndex || preemptionsLeft == 0)
+      return previousIndex;
+
+    preemptionsLeft--;
+    return picked;
+  }
+}
@@ -0,0 +1,19 @@
+package oscar.controller.scheduler;
+
+import java.util.SplittableRandom;
+
+/**
+ * Releases a uniformly random waiting thread at every scheduling point
+ */
+public final class RandomWalkStrategy implements SchedulingStrategy {
+  private final SplittableRandom random;
+
+  public RandomWalkStrategy(long seed) {
+    this.random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public int pick(int[] candidates, int count, int previous) {
+    return random.nextInt(count);
+  }
+}
@@ -0,0 +1,31 @@
+package oscar.controller.scheduler;
+
+/**
+ * Releases waiting threads in turn, by ordinal
+ */
+public final class RoundRobinStrategy implements SchedulingStrategy {
+  private int last = -1;
+
+  @Override
+  public int pick(int[] candidates, int count, int previous) {
+    if (previous >= 0)
+      last = previous;
+
+    // Pick the lowest ordinal after the last released thread, wrapping around to the lowest ordinal
+    int next = -1;
+    int lowest = 0;
+
+    for (int i = 0; i < count; i++) {
+      if (candidates[i] < candidates[lowest])
+        lowest = i;
+
+      if (candidates[i] > last && (next == -1 || candidates[i] < candidates[next]))
+        next = i;
+    }
+
+    int picked = next != -1 ? next : lowest;
+    last = candidates[picked];
+
+    return picked;
+  }
+}
@@ -0,0 +1,39 @@
+package oscar.controller.scheduler;
+
+/**
+ * Picks the thread released at a scheduling point of the cooperative scheduler. Threads are identified by their
+ * creation ordinal, the order in which the program created them, so a strategy picking from the same candidates
+ * gives the same schedule in every run. Custom strategies can be selected by class name,
+ * they must provide a public no-argument constructor.
+ */
+public interface SchedulingStrategy {
+  /**
+   * @param candidates ordinals of the threads waiting at a scheduling point, in ascending order
+   * @param count      number of candidates
+   * @param previous   ordinal of the thread that ran up to this point, or -1 if it stalled outside the controller
+   * @return the index of the candidate to release
+   */
+  int pick(int[] candidates, int count, int previous);
+
+  static SchedulingStrategy fromString(String name, long seed, int preemptionBound) {
+    switch (name.toLowerCase()) {
+      case "random":
+        return new RandomWalkStrategy(seed);
+      case "roundrobin":
+        return new RoundRobinStrategy();
+      case "bounded":
+        return new BoundedPreemptionStrategy(seed, preemptionBound);
+    }
+
+    try {
+      Class<?> strategyClass = Class.forName(name);
+
+      if (!SchedulingStrategy.class.isAssignableFrom(strategyClass))
+        throw new RuntimeException("Class '" + name + "' is not a scheduling strategy.");
+
+      return (SchedulingStrategy) strategyClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("No scheduling strategy matches '" + name + "'.", e);
+    }
+  }
+}
@@ -1,11 +1,18 @@
 package oscar.controller.util;
 
+import oscar.controller.noise.NoiseBackoffScope;
+import oscar.controller.noise.NoiseCategory;
+import oscar.controller.noise.NoiseDistribution;
+import oscar.controller.noise.NoiseLocation;
+import oscar.controller.noise.effect.NoiseEffect;
 import oscar.utils.logger.LoggerFactory;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Properties;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 public abstract class ControllerConfigFile {
   private static final Logger logger = LoggerFactory.getInstance(ControllerConfigFile.class);
@@ -18,44 +25,208 @@ public abstract class ControllerConfigFile {
     }
   }
 
+  public static Float parseFloat(Properties props, String property, String defaultValue) {
+    try {
+      return Float.parseFloat(props.getProperty(property, defaultValue));
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Invalid property value for '" + property + "'.", e);
+    }
+  }
+
+  public static Double parseDouble(Properties props, String property, String defaultValue) {
+    try {
+      return Double.parseDouble(props.getProperty(property, defaultValue));
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Invalid property value for '" + property + "'.", e);
+    }
+  }
+
+  public static Boolean parseBoolean(Properties props, String property, String defaultValue) {
+    String value = props.getProperty(property, defaultValue).trim().toLowerCase();
+
+    if (!value.equals("true") && !value.equals("false"))
+      throw new RuntimeException("Invalid property value for '" + property + "', expected true or false.");
+
+    return Boolean.parseBoolean(value);
+  }
+
   public static void readFile(ControllerOptions options) {
     logger.info("Looking for config file in location '" + options.ConfigFile + "'.");
 
     Properties props = loadFile(options.ConfigFile);
 
-    logger.info("Found client.properties file. Reading properties.");
+    logger.info("Found config file. Reading properties.");
 
-    /*
     // Read basic properties
-    options.MaxSleepLength = ControllerConfigFile.parseLong(props, "max_sleep_length", "400");
-    options.MinSleepLength = ControllerConfigFile.parseLong(props, "min_sleep_length", "0");
+    options.MaxNoiseIntensity = parseLong(props, "max_noise_intensity", options.MaxNoiseIntensity.toString());
+    options.MinNoiseIntensity = parseLong(props, "min_noise_intensity", options.MinNoiseIntensity.toString());
+    options.NoiseProbability = parseFloat(props, "noise_probability", Float.toString(options.NoiseProbability));
+    options.GlobalNoiseBudget = parseLong(props, "global_noise_budget", Long.toString(options.GlobalNoiseBudget));
+    options.ThreadNoiseBudget = parseLong(props, "thread_noise_budget", Long.toString(options.ThreadNoiseBudget));
+    options.BackoffThreshold = parseLong(props, "backoff_threshold", Long.toString(options.BackoffThreshold));
+    options.BackoffWindow = parseLong(props, "backoff_window", Long.toString(options.BackoffWindow));
+    options.Seed = parseLong(props, "seed", Long.toString(options.Seed));
+    options.PctDepth = parseLong(props, "pct_depth", Integer.toString(options.PctDepth)).intValue();
+    options.PctSteps = parseLong(props, "pct_steps", Long.toString(options.PctSteps));
+    options.Scheduler = props.getProperty("scheduler", options.Scheduler);
+    options.PreemptionBound = parseLong(props, "preemption_bound", Integer.toString(options.PreemptionBound)).intValue();
+    options.SchedulerTimeout = parseLong(props, "scheduler_timeout", Long.toString(options.SchedulerTimeout));
+    options.RendezvousParties = parseLong(props, "rendezvous", Integer.toString(options.RendezvousParties)).intValue();
+    options.RendezvousTimeout = parseLong(props, "rendezvous_timeout", Long.toString(options.RendezvousTimeout));
+    options.ActivationDelay = parseLong(props, "activate_after", Long.toString(options.ActivationDelay));
+    options.ActivationSite = parseLong(props, "activation_site", Integer.toString(options.ActivationSite)).intValue();
+    options.ActivationSiteHits = parseLong(props, "activation_site_hits", Long.toString(options.ActivationSiteHits));
+    options.ManualActivation = parseBoolean(props, "activate_manually", Boolean.toString(options.ManualActivation));
+    options.ActivationRequiresAll = parseBoolean(props, "activate_on_all", Boolean.toString(options.ActivationRequiresAll));
+    options.ActiveDuration = parseLong(props, "active_duration", Long.toString(options.ActiveDuration));
+    options.ThreadGroupName = props.getProperty("thread_group", options.ThreadGroupName);
+    options.RandomThreads = parseLong(props, "random_threads", Integer.toString(options.RandomThreads)).intValue();
+    options.ExpectedThreads = parseLong(props, "expected_threads", Integer.toString(options.ExpectedThreads)).intValue();
+    options.Watchdog = parseBoolean(props, "watchdog", Boolean.toString(options.Watchdog));
+    options.WatchdogStallTimeout = parseLong(props, "watchdog_stall_timeout", Long.toString(options.WatchdogStallTimeout));
+
+    String threadName = props.getProperty("thread_name");
+    if (threadName != null)
+      options.ThreadNamePattern = ControllerOptions.parsePattern(threadName.trim());
+
+    String threadOrdinals = props.getProperty("thread_ordinals");
+    if (threadOrdinals != null) {
+      options.ThreadOrdinals.clear();
 
-    // Read noise location file, if provided
-    String noiseLocationsFile = props.getProperty("noise_locations_file");
-    if (noiseLocationsFile != null) {
-      HashMap<Long, SleepNoise> readNoiseLocations = FileControllerOutput.read(noiseLocationsFile);
-      options.NoiseLocations.putAll(readNoiseLocations);
+      for (String ordinal : threadOrdinals.split(","))
+        options.ThreadOrdinals.add(parseOrdinal(ordinal.trim()));
     }
 
-    // Read which noise placements
-    String noisePlacements = props.getProperty("noise_placements");
-    if (noisePlacements != null) {
-      options.ActiveNoisePlacements.clear();
-      options.ActiveNoisePlacements.addAll(Arrays.stream(noisePlacements.split(","))
-                                         .map(NoisePlacement::fromString)
-                                         .collect(Collectors.toSet()));
+    options.RecordDecisions = parseBoolean(props, "record_decisions", Boolean.toString(options.RecordDecisions));
+    options.ReplayFile = props.getProperty("replay", options.ReplayFile);
+    options.CoverageFeedback = parseBoolean(props, "coverage_feedback", Boolean.toString(options.CoverageFeedback));
+    options.InterleavingCoverage = parseBoolean(props, "interleaving_coverage",
+                                                Boolean.toString(options.InterleavingCoverage));
+
+    String backoffScope = props.getProperty("backoff");
+    if (backoffScope != null)
+      options.BackoffScope = NoiseBackoffScope.fromString(backoffScope.trim());
+
+    options.SiteStatistics = parseBoolean(props, "site_statistics", Boolean.toString(options.SiteStatistics));
+    options.Jmx = parseBoolean(props, "jmx", Boolean.toString(options.Jmx));
+
+    String noiseEffect = props.getProperty("noise_effect");
+    if (noiseEffect != null)
+      options.NoiseEffect = NoiseEffect.fromString(noiseEffect.trim());
+
+    String virtualThreadEffect = props.getProperty("virtual_thread_effect");
+    if (virtualThreadEffect != null)
+      options.VirtualThreadEffect = NoiseEffect.fromString(virtualThreadEffect.trim());
+
+    options.VirtualMonitorCap = parseLong(props, "virtual_monitor_cap", Long.toString(options.VirtualMonitorCap));
+
+    String intensityDistribution = props.getProperty("intensity_distribution");
+    if (intensityDistribution != null)
+      options.IntensityDistribution = NoiseDistribution.fromString(intensityDistribution.trim());
+
+    String distributionParameter = props.getProperty("intensity_distribution_parameter");
+    if (distributionParameter != null)
+      options.IntensityDistributionParameter = parseDouble(props, "intensity_distribution_parameter", null);
+
+    String intensityUnit = props.getProperty("intensity_unit");
+    if (intensityUnit != null)
+      options.NoiseIntensityUnit = ControllerOptions.parseTimeUnit(intensityUnit.trim());
+
+    // Read which noise categories and locations are active
+    String noiseCategories = props.getProperty("noise_categories");
+    if (noiseCategories != null) {
+      options.noiseCategories.clear();
+      options.noiseCategories.addAll(Arrays.stream(noiseCategories.split(","))
+                                           .map(String::trim)
+                                           .map(NoiseCategory::fromString)
+                                           .collect(Collectors.toSet()));
     }
-    */
+
+    String noiseLocations = props.getProperty("noise_locations");
+    if (noiseLocations != null) {
+      options.NoiseLocations.clear();
+      options.NoiseLocations.addAll(Arrays.stream(noiseLocations.split(","))
+                                          .map(String::trim)
+                                          .map(NoiseLocation::fromString)
+                                          .collect(Collectors.toSet()));
+    }
+
+    String disabledSites = props.getProperty("disabled_sites");
+    if (disabledSites != null) {
+      options.DisabledSites.clear();
+
+      for (String siteID : disabledSites.split(","))
+        options.DisabledSites.add(parseSiteID(siteID.trim(), "disabled_sites"));
+    }
+
+    // Read per-site overrides, in the form "site.<id>.<property>"
+    for (String property : props.stringPropertyNames()) {
+      if (!property.startsWith("site."))
+        continue;
+
+      String[] splitProperty = property.split("\\.");
+
+      if (splitProperty.length != 3)
+        throw new RuntimeException("Invalid site property '" + property + "', expected 'site.<id>.<property>'.");
+
+      int siteID = parseSiteID(splitProperty[1], property);
+      options.SiteOptions.putIfAbsent(siteID, new ControllerSiteOptions());
+      ControllerSiteOptions siteOptions = options.SiteOptions.get(siteID);
+
+      switch (splitProperty[2]) {
+        case "enabled":
+          siteOptions.Enabled = parseBoolean(props, property, null);
+          break;
+        case "noise_probability":
+          siteOptions.NoiseProbability = parseFloat(props, property, null);
+          break;
+        case "min_noise_intensity":
+          siteOptions.MinNoiseIntensity = parseLong(props, property, null);
+          break;
+        case "max_noise_intensity":
+          siteOptions.MaxNoiseIntensity = parseLong(props, property, null);
+          break;
+        default:
+          throw new RuntimeException("Unknown site property '" + property + "'.");
+      }
+    }
+
+    logger.info("Read " + options.SiteOptions.size() + " site specific policies from config file.");
   }
 
-  private static Properties loadFile(String location) {
+  private static int parseOrdinal(String ordinal) {
+    try {
+      int value = Integer.parseInt(ordinal);
+
+      if (value < 0)
+        throw new RuntimeException("Invalid thread ordinal '" + ordinal + "' in property 'thread_ordinals'.");
 
+      return value;
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Invalid thread ordinal '" + ordinal + "' in property 'thread_ordinals'.", e);
+    }
+  }
+
+  private static int parseSiteID(String siteID, String property) {
     try {
+      int id = Integer.parseInt(siteID);
+
+      if (id < 0)
+        throw new RuntimeException("Invalid site id '" + siteID + "' in property '" + property + "'.");
+
+      return id;
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Invalid site id '" + siteID + "' in property '" + property + "'.", e);
+    }
+  }
+
+  private static Properties loadFile(String location) {
+    try (FileInputStream input = new FileInputStream(location)) {
       Properties props = new Properties();
-      props.load(new FileInputStream(location));
+      props.load(input);
       return props;
     } catch (IOException e) {
-      throw new RuntimeException("Failed to find client.properties file in '" + location + "'.", e);
+      throw new RuntimeException("Failed to find config file in '" + location + "'.", e);
     }
   }
 }
\ No newline at end of file
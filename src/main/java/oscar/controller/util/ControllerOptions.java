@@ -2,15 +2,25 @@ package oscar.controller.util;
 
 import oscar.Main;
 import oscar.controller.noise.NoiseLocation;
+import oscar.controller.noise.NoiseBackoffScope;
 import oscar.controller.noise.NoiseCategory;
+import oscar.controller.noise.NoiseDistribution;
+import oscar.controller.noise.effect.ParkEffect;
+import oscar.controller.noise.effect.SleepEffect;
+import oscar.controller.noise.effect.YieldEffect;
 import oscar.controller.util.output.*;
 import oscar.utils.logger.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 public final class ControllerOptions {
@@ -18,20 +28,60 @@ public final class ControllerOptions {
 
   private static final List<ControllerOption> CONTROLLER_OPTIONS = Arrays.asList(
       new ControllerOption("InjectedArgs", "Inject arguments into the program", "String", "", "-a", "--args"),
-      // new ControllerOption("ConfigFile", "Set config file location to load", "String", "", "-c", "--config_file"),
+      new ControllerOption("ConfigFile", "Set config file location to load", "String", "", "-c", "--config_file"),
       new ControllerOption("ConsoleOutput", "Output trace to console", "Flag", "False", "-co", "--console-output"),
       new ControllerOption("FileOutput", "Output trace to a file", "Flag", "False", "-fo", "--file-output"),
-      new ControllerOption("LazyFileOutput", "Lazily output trace to a file", "Flag", "False", "-lfo", "--lazy-file-output"),
+      new ControllerOption("LazyFileOutput", "Lazily output trace to a file, optionally capping its buffer memory (MB)", "Flag [Long]", "False", "-lfo", "--lazy-file-output"),
+      new ControllerOption("BinaryFileOutput", "Output a binary trace to a file", "Flag", "False", "-bfo", "--binary-file-output"),
+      new ControllerOption("MappedFileOutput", "Output a crash-safe binary trace to a memory-mapped file", "Flag", "False", "-mfo", "--mapped-file-output"),
+      new ControllerOption("JfrOutput", "Output trace and injected noise as JDK Flight Recorder events", "Flag", "False", "-jfr", "--jfr-output"),
+      new ControllerOption("SiteStatistics", "Write per-site runtime statistics to a file at exit", "Flag", "False", "-ss", "--site-statistics"),
       new ControllerOption("MaxNoiseIntensity", "Set maximum noise intensity", "Long", "10", "-M", "--max-noise-intensity"),
       new ControllerOption("MinNoiseIntensity", "Set minimum noise intensity", "Long", "0", "-m", "--min-noise-intensity"),
+      new ControllerOption("GlobalNoiseBudget", "Set maximum noise injected per second across all threads, in the intensity unit (0 for unlimited)", "Long", "0", "-gb", "--global-noise-budget"),
+      new ControllerOption("ThreadNoiseBudget", "Set maximum noise injected per second in each thread, in the intensity unit (0 for unlimited)", "Long", "0", "-tb", "--thread-noise-budget"),
+      new ControllerOption("BackoffScope", "Back off the noise probability of hot sites, counting hits per site or per thread (none, site or thread)", "String", "none", "-bo", "--backoff"),
+      new ControllerOption("BackoffThreshold", "Set number of hits noised with the full probability before backing off", "Long", "10", "-bth", "--backoff-threshold"),
+      new ControllerOption("BackoffWindow", "Set time after which backoff hit counts are reset, in milliseconds (0 for never)", "Long", "0", "-bw", "--backoff-window"),
+      new ControllerOption("CoverageFeedback", "Favour noise at sites completing rarely observed cross-thread site pairs", "Flag", "False", "-cf", "--coverage-feedback"),
+      new ControllerOption("InterleavingCoverage", "Write a bitmap of the site transitions covered by the run at exit", "Flag", "False", "-ic", "--interleaving-coverage"),
+      new ControllerOption("Seed", "Set the seed every noise decision is derived from", "Long", "Random", "-s", "--seed"),
+      new ControllerOption("PctDepth", "Enable PCT priority-based delays for bugs of the given depth (0 to disable)", "Integer", "0", "-pct", "--pct-depth"),
+      new ControllerOption("PctSteps", "Set the expected number of site hits, among which PCT change points are placed", "Long", "10000", "-pcs", "--pct-steps"),
+      new ControllerOption("Scheduler", "Serialize threads at noise points with a scheduling strategy instead of delays (random, roundrobin, bounded or a SchedulingStrategy class name)", "String", "-", "-sch", "--scheduler"),
+      new ControllerOption("PreemptionBound", "Set maximum number of preemptions of the bounded scheduling strategy", "Integer", "2", "-spb", "--preemption-bound"),
+      new ControllerOption("SchedulerTimeout", "Set time after which a thread that did not reach a scheduling point is skipped, in milliseconds", "Long", "10", "-sto", "--scheduler-timeout"),
+      new ControllerOption("RendezvousParties", "Hold threads triggering noise until the given number of them arrived, then release them together (0 to disable)", "Integer", "0", "-rv", "--rendezvous"),
+      new ControllerOption("RendezvousTimeout", "Set time after which a rendezvous releases the threads that arrived, in microseconds", "Long", "100", "-rvt", "--rendezvous-timeout"),
+      new ControllerOption("ThreadNamePattern", "Only noise threads whose name matches the given regular expression", "String", "-", "-tn", "--thread-name"),
+      new ControllerOption("ThreadGroupName", "Only noise threads of the given thread group", "String", "-", "-tg", "--thread-group"),
+      new ControllerOption("ThreadOrdinals", "Only noise threads with the given creation ordinals, 0 being the thread starting the program", "List<Integer>", "{}", "-to", "--thread-ordinals"),
+      new ControllerOption("RandomThreads", "Only noise about the given number of threads, each picked from the seed with odds of this number over the expected threads (0 for all)", "Integer", "0", "-rt", "--random-threads"),
+      new ControllerOption("ExpectedThreads", "Expected number of threads of the program, sets the odds of random threads (0 for twice the random threads)", "Integer", "0", "-et", "--expected-threads"),
+      new ControllerOption("RecordDecisions", "Record the noise triggered by the run to a decision log", "Flag", "False", "-rec", "--record"),
+      new ControllerOption("ReplayFile", "Replay the noise recorded in a decision log instead of deciding noise", "String", "-", "-rep", "--replay"),
+      new ControllerOption("ActivationDelay", "Only noise once the given number of seconds passed since the program started (0 for none)", "Long", "0", "-aa", "--activate-after"),
+      new ControllerOption("ActivationSite", "Only noise once the given site was hit, optionally the given number of times (default 1)", "Integer [Long]", "-", "-as", "--activate-at-site"),
+      new ControllerOption("ManualActivation", "Only noise once activated by a Controller.activate call or through JMX", "Flag", "False", "-am", "--activate-manually"),
+      new ControllerOption("ActivationRequiresAll", "Only noise once every activation condition is met, instead of any of them", "Flag", "False", "-aall", "--activate-on-all"),
+      new ControllerOption("ActiveDuration", "Stop noising the given number of seconds after noise was activated (0 for never)", "Long", "0", "-ad", "--active-duration"),
+      new ControllerOption("Watchdog", "Abort deadlocked runs and runs where no thread reaches a new site for the given time, in ms (default 10000, 0 for deadlocks only), dumping stacks and last site ids, not trace events", "Flag [Long]", "False", "-wd", "--watchdog"),
       new ControllerOption("NoiseProbability", "Probability of noise being triggered", "Float", "1", "-p", "--noise-probability"),
       new ControllerOption("DisableNoise", "Disable all noise", "Flag", "False", "-d", "--disable-noise"),
       new ControllerOption("DisableNoiseTracing", "Disable all noise tracing", "Flag", "False", "-dt", "--disable-tracing"),
       new ControllerOption("DisablePreNoiseTracing", "Disable pre-noise tracing", "Flag", "False", "-d1", "--disable-pre-noise-trace"),
       new ControllerOption("DisablePostNoiseTracing", "Disable post-noise tracing", "Flag", "False", "-d2", "--disable-post-noise-trace"),
-      new ControllerOption("YieldMode", "Set noise type to yield.", "Flag", "False", "-y", "--yield"),
+      new ControllerOption("NoiseEffect", "Set noise effect (sleep, park, spin, yield or a NoiseEffect class name).", "String", "sleep", "-ne", "--noise-effect"),
+      new ControllerOption("VirtualThreadEffect", "Set noise effect of virtual threads (sleep, park, spin, yield or a NoiseEffect class name).", "String", "park", "-vte", "--virtual-thread-effect"),
+      new ControllerOption("VirtualMonitorCap", "Cap noise of virtual threads inside a monitor, which pins their carrier thread before JDK 24 (0 to skip it)", "Long", "0", "-vmc", "--virtual-monitor-cap"),
+      new ControllerOption("IntensityDistribution", "Set noise intensity distribution (uniform, exponential, bimodal or pareto).", "String", "uniform", "-id", "--intensity-distribution"),
+      new ControllerOption("IntensityDistributionParameter", "Set the intensity distribution parameter (exponential mean, bimodal long delay probability or pareto tail index).", "Double", "-", "-idp", "--intensity-distribution-parameter"),
+      new ControllerOption("NoiseIntensityUnit", "Set noise intensity unit (ns, us, ms or s).", "String", "ms", "-iu", "--intensity-unit"),
+      new ControllerOption("YieldMode", "Set noise effect to yield, same as '-ne yield'.", "Flag", "False", "-y", "--yield"),
       new ControllerOption("NoiseCategories", "Set active noise placement categories.", "List<String>", "{}", "-nc", "--noise-categories"),
       new ControllerOption("NoiseLocations", "Set active noise locations.", "List<String>", "{}", "-nl", "--noise-locations"),
+      new ControllerOption("DisabledSites", "Set noise site ids to disable.", "List<Integer>", "{}", "-ds", "--disabled-sites"),
+      new ControllerOption("Jmx", "Expose the controller as a JMX MBean for live control.", "Flag", "False", "-jmx", "--jmx"),
       new ControllerOption("PrintNoiseLocations", "Print all noise placement locations.", "Flag", "-", "-pnl", "--print-noise-locations"),
       new ControllerOption("Version", "Print OSCAR version.", "Flag", "-", "-v", "--version"),
       new ControllerOption("Verbose", "Enable full logging.", "Flag", "False", "-vb", "--verbose"),
@@ -43,15 +93,56 @@ public final class ControllerOptions {
   public String InjectedArgs = "";
   public String ConfigFile = null;
   public ControllerOutput ControllerOutput = null;
+  public boolean SiteStatistics = false;
   public Long MaxNoiseIntensity = 10L;
   public Long MinNoiseIntensity = 0L;
+  public NoiseDistribution IntensityDistribution = NoiseDistribution.UNIFORM;
+  public Double IntensityDistributionParameter = null;
+  public TimeUnit NoiseIntensityUnit = TimeUnit.MILLISECONDS;
+  public oscar.controller.noise.effect.NoiseEffect NoiseEffect = null;
+  public oscar.controller.noise.effect.NoiseEffect VirtualThreadEffect = new ParkEffect();
+  public long VirtualMonitorCap = 0;
   public boolean DisableNoise = false;
   public boolean DisablePostNoiseTracing = false;
   public boolean DisablePreNoiseTracing = false;
   public final HashSet<NoiseLocation> NoiseLocations = new HashSet<>();
   public final HashSet<NoiseCategory> noiseCategories = new HashSet<>();
+  public final HashSet<Integer> DisabledSites = new HashSet<>();
+  public final HashMap<Integer, ControllerSiteOptions> SiteOptions = new HashMap<>();
   public boolean DisableSkippedLocations = false;
   public float NoiseProbability = 1;
+  public long GlobalNoiseBudget = 0;
+  public long ThreadNoiseBudget = 0;
+  public NoiseBackoffScope BackoffScope = NoiseBackoffScope.NONE;
+  public long BackoffThreshold = 10;
+  public long BackoffWindow = 0;
+  public boolean CoverageFeedback = false;
+  public boolean InterleavingCoverage = false;
+  public long Seed = new SplittableRandom().nextLong();
+  public int PctDepth = 0;
+  public long PctSteps = 10000;
+  public String Scheduler = null;
+  public int PreemptionBound = 2;
+  public long SchedulerTimeout = 10;
+  public int RendezvousParties = 0;
+  public long RendezvousTimeout = 100;
+  public long ActivationDelay = 0;
+  public int ActivationSite = -1;
+  public long ActivationSiteHits = 1;
+  public boolean ManualActivation = false;
+  public boolean ActivationRequiresAll = false;
+  public long ActiveDuration = 0;
+  public String ThreadNamePattern = null;
+  public String ThreadGroupName = null;
+  public final HashSet<Integer> ThreadOrdinals = new HashSet<>();
+  public int RandomThreads = 0;
+  public int ExpectedThreads = 0;
+  public boolean RecordDecisions = false;
+  public String ReplayFile = null;
+  public boolean Watchdog = false;
+  public long WatchdogStallTimeout = 10000;
+
+  public boolean Jmx = false;
 
   public boolean Verbose = false;
   public boolean YieldMode = false;
@@ -94,7 +185,29 @@ public final class ControllerOptions {
           if (options.ControllerOutput != null)
             throw new RuntimeException("Output method already set.");
 
-          options.ControllerOutput = new LazyFileOutput();
+          // Read optional memory cap
+          if (i + 1 < argv.length && !argv[i + 1].startsWith("-"))
+            options.ControllerOutput = new LazyFileOutput(parseLong(argv[++i]));
+          else
+            options.ControllerOutput = new LazyFileOutput();
+          break;
+        case "BinaryFileOutput":
+          if (options.ControllerOutput != null)
+            throw new RuntimeException("Output method already set.");
+
+          options.ControllerOutput = new BinaryFileOutput();
+          break;
+        case "MappedFileOutput":
+          if (options.ControllerOutput != null)
+            throw new RuntimeException("Output method already set.");
+
+          options.ControllerOutput = new MappedFileOutput();
+          break;
+        case "JfrOutput":
+          if (options.ControllerOutput != null)
+            throw new RuntimeException("Output method already set.");
+
+          options.ControllerOutput = createJfrOutput();
           break;
         case "ConsoleOutput":
           if (options.ControllerOutput != null)
@@ -102,28 +215,140 @@ public final class ControllerOptions {
 
           options.ControllerOutput = new ConsoleOutput();
           break;
+        case "SiteStatistics":
+          options.SiteStatistics = true;
+          break;
         case "NoiseProbability":
           if (options.DisableNoise)
             throw new RuntimeException("Noise disabled.");
 
           options.NoiseProbability = parseFloat(argv[i + 1]);
           i++;
+          break;
+        case "GlobalNoiseBudget":
+          options.GlobalNoiseBudget = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "ThreadNoiseBudget":
+          options.ThreadNoiseBudget = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "BackoffScope":
+          options.BackoffScope = NoiseBackoffScope.fromString(argv[i + 1]);
+          i++;
+          break;
+        case "BackoffThreshold":
+          options.BackoffThreshold = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "BackoffWindow":
+          options.BackoffWindow = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "CoverageFeedback":
+          options.CoverageFeedback = true;
+          break;
+        case "InterleavingCoverage":
+          options.InterleavingCoverage = true;
+          break;
+        case "Seed":
+          options.Seed = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "PctDepth":
+          options.PctDepth = parseInt(argv[i + 1]);
+          i++;
+          break;
+        case "PctSteps":
+          options.PctSteps = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "Scheduler":
+          options.Scheduler = argv[i + 1];
+          i++;
+          break;
+        case "PreemptionBound":
+          options.PreemptionBound = parseInt(argv[i + 1]);
+          i++;
+          break;
+        case "SchedulerTimeout":
+          options.SchedulerTimeout = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "RendezvousParties":
+          options.RendezvousParties = parseInt(argv[i + 1]);
+          i++;
+          break;
+        case "RendezvousTimeout":
+          options.RendezvousTimeout = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "ActivationDelay":
+          options.ActivationDelay = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "ActivationSite":
+          options.ActivationSite = parseInt(argv[i + 1]);
+          i++;
 
-          if (options.NoiseProbability < 0 || options.NoiseProbability > 1)
-            throw new RuntimeException("Invalid value for 'noise probability', must be higher or equal to 0 and lower or equal to 1.");
+          // Read optional number of hits
+          if (i + 1 < argv.length && !argv[i + 1].startsWith("-"))
+            options.ActivationSiteHits = parseLong(argv[++i]);
+          break;
+        case "ManualActivation":
+          options.ManualActivation = true;
+          break;
+        case "ActivationRequiresAll":
+          options.ActivationRequiresAll = true;
+          break;
+        case "ActiveDuration":
+          options.ActiveDuration = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "ThreadNamePattern":
+          options.ThreadNamePattern = parsePattern(argv[i + 1]);
+          i++;
+          break;
+        case "ThreadGroupName":
+          options.ThreadGroupName = argv[i + 1];
+          i++;
+          break;
+        case "ThreadOrdinals":
+          options.ThreadOrdinals.clear();
+
+          // Read all thread ordinals
+          while (i + 1 < argv.length && !argv[i + 1].startsWith("-"))
+            options.ThreadOrdinals.add(parseInt(argv[++i]));
 
           break;
+        case "RandomThreads":
+          options.RandomThreads = parseInt(argv[i + 1]);
+          i++;
+          break;
+        case "ExpectedThreads":
+          options.ExpectedThreads = parseInt(argv[i + 1]);
+          i++;
+          break;
+        case "RecordDecisions":
+          options.RecordDecisions = true;
+          break;
+        case "ReplayFile":
+          options.ReplayFile = argv[i + 1];
+          i++;
+          break;
+        case "Watchdog":
+          options.Watchdog = true;
+
+          // Read optional stall timeout
+          if (i + 1 < argv.length && !argv[i + 1].startsWith("-"))
+            options.WatchdogStallTimeout = parseLong(argv[++i]);
+          break;
         case "MaxNoiseIntensity":
           if (options.DisableNoise)
             throw new RuntimeException("Noise disabled.");
 
           options.MaxNoiseIntensity = parseLong(argv[i + 1]);
           i++;
-          if (options.MaxNoiseIntensity < 0)
-            throw new RuntimeException("Invalid value for 'max noise intensity', must be higher or equal to 0.");
-
-          if (options.MaxNoiseIntensity < options.MinNoiseIntensity)
-            throw new RuntimeException("Invalid value for 'max noise intensity', must be lower or equal to 'min-noise-intensity'.");
           break;
         case "MinNoiseIntensity":
           if (options.DisableNoise)
@@ -131,18 +356,40 @@ public final class ControllerOptions {
 
           options.MinNoiseIntensity = parseLong(argv[i + 1]);
           i++;
-
-          if (options.MinNoiseIntensity < 0)
-            throw new RuntimeException("Invalid value for 'min noise intensity', must be higher or equal to 0.");
-
-          if (options.MinNoiseIntensity > options.MaxNoiseIntensity)
-            throw new RuntimeException("Invalid value for 'min noise intensity', must be lower or equal to 'max noise intensity'.");
           break;
         case "YieldMode":
           if (options.DisableNoise)
             throw new RuntimeException("Noise disabled.");
 
           options.YieldMode = true;
+          options.NoiseEffect = new YieldEffect();
+          break;
+        case "NoiseEffect":
+          if (options.DisableNoise)
+            throw new RuntimeException("Noise disabled.");
+
+          options.NoiseEffect = oscar.controller.noise.effect.NoiseEffect.fromString(argv[i + 1]);
+          i++;
+          break;
+        case "VirtualThreadEffect":
+          options.VirtualThreadEffect = oscar.controller.noise.effect.NoiseEffect.fromString(argv[i + 1]);
+          i++;
+          break;
+        case "VirtualMonitorCap":
+          options.VirtualMonitorCap = parseLong(argv[i + 1]);
+          i++;
+          break;
+        case "IntensityDistribution":
+          options.IntensityDistribution = NoiseDistribution.fromString(argv[i + 1]);
+          i++;
+          break;
+        case "IntensityDistributionParameter":
+          options.IntensityDistributionParameter = parseDouble(argv[i + 1]);
+          i++;
+          break;
+        case "NoiseIntensityUnit":
+          options.NoiseIntensityUnit = parseTimeUnit(argv[i + 1]);
+          i++;
           break;
         case "NoiseCategories":
           options.noiseCategories.clear();
@@ -158,6 +405,17 @@ public final class ControllerOptions {
           while (i + 1 < argv.length && !argv[i + 1].startsWith("-"))
             options.NoiseLocations.add(NoiseLocation.fromString(argv[++i]));
 
+          break;
+        case "DisabledSites":
+          options.DisabledSites.clear();
+
+          // Read all disabled noise site ids
+          while (i + 1 < argv.length && !argv[i + 1].startsWith("-"))
+            options.DisabledSites.add(parseInt(argv[++i]));
+
+          break;
+        case "Jmx":
+          options.Jmx = true;
           break;
         case "PrintNoiseLocations":
           printNoiseLocations();
@@ -166,6 +424,10 @@ public final class ControllerOptions {
         case "DisableNoise":
           options.DisableNoise = true;
           break;
+        case "DisableNoiseTracing":
+          options.DisablePreNoiseTracing = true;
+          options.DisablePostNoiseTracing = true;
+          break;
         case "DisablePreNoiseTracing":
           options.DisablePreNoiseTracing = true;
           break;
@@ -200,15 +462,88 @@ public final class ControllerOptions {
       }
     }
 
-    if (options.MinNoiseIntensity > options.MaxNoiseIntensity)
-      throw new RuntimeException("Minimum sleep length should be lower than maximum.");
+    // Options from the command line and from config files are only checked once both are read
+    options.validate();
 
     if (options.MinNoiseIntensity + options.MaxNoiseIntensity == 0)
       options.DisableNoise = true;
 
+    if (options.NoiseEffect == null)
+      options.NoiseEffect = new SleepEffect();
+
+    if (options.IntensityDistributionParameter == null)
+      options.IntensityDistributionParameter = options.IntensityDistribution.getDefaultParameter();
+
+    options.IntensityDistribution.validate(options.IntensityDistributionParameter);
+
     return options;
   }
 
+  /**
+   * @return a copy of the options, sharing only the per-site overrides and the output and effect instances
+   */
+  public ControllerOptions copy() {
+    ControllerOptions copy = new ControllerOptions();
+
+    copy.InjectedArgs = InjectedArgs;
+    copy.ConfigFile = ConfigFile;
+    copy.ControllerOutput = ControllerOutput;
+    copy.SiteStatistics = SiteStatistics;
+    copy.MaxNoiseIntensity = MaxNoiseIntensity;
+    copy.MinNoiseIntensity = MinNoiseIntensity;
+    copy.IntensityDistribution = IntensityDistribution;
+    copy.IntensityDistributionParameter = IntensityDistributionParameter;
+    copy.NoiseIntensityUnit = NoiseIntensityUnit;
+    copy.NoiseEffect = NoiseEffect;
+    copy.VirtualThreadEffect = VirtualThreadEffect;
+    copy.VirtualMonitorCap = VirtualMonitorCap;
+    copy.DisableNoise = DisableNoise;
+    copy.DisablePostNoiseTracing = DisablePostNoiseTracing;
+    copy.DisablePreNoiseTracing = DisablePreNoiseTracing;
+    copy.NoiseLocations.addAll(NoiseLocations);
+    copy.noiseCategories.addAll(noiseCategories);
+    copy.DisabledSites.addAll(DisabledSites);
+    copy.SiteOptions.putAll(SiteOptions);
+    copy.DisableSkippedLocations = DisableSkippedLocations;
+    copy.NoiseProbability = NoiseProbability;
+    copy.GlobalNoiseBudget = GlobalNoiseBudget;
+    copy.ThreadNoiseBudget = ThreadNoiseBudget;
+    copy.BackoffScope = BackoffScope;
+    copy.BackoffThreshold = BackoffThreshold;
+    copy.BackoffWindow = BackoffWindow;
+    copy.CoverageFeedback = CoverageFeedback;
+    copy.InterleavingCoverage = InterleavingCoverage;
+    copy.Seed = Seed;
+    copy.PctDepth = PctDepth;
+    copy.PctSteps = PctSteps;
+    copy.Scheduler = Scheduler;
+    copy.PreemptionBound = PreemptionBound;
+    copy.SchedulerTimeout = SchedulerTimeout;
+    copy.RendezvousParties = RendezvousParties;
+    copy.RendezvousTimeout = RendezvousTimeout;
+    copy.ActivationDelay = ActivationDelay;
+    copy.ActivationSite = ActivationSite;
+    copy.ActivationSiteHits = ActivationSiteHits;
+    copy.ManualActivation = ManualActivation;
+    copy.ActivationRequiresAll = ActivationRequiresAll;
+    copy.ActiveDuration = ActiveDuration;
+    copy.ThreadNamePattern = ThreadNamePattern;
+    copy.ThreadGroupName = ThreadGroupName;
+    copy.ThreadOrdinals.addAll(ThreadOrdinals);
+    copy.RandomThreads = RandomThreads;
+    copy.ExpectedThreads = ExpectedThreads;
+    copy.RecordDecisions = RecordDecisions;
+    copy.ReplayFile = ReplayFile;
+    copy.Watchdog = Watchdog;
+    copy.WatchdogStallTimeout = WatchdogStallTimeout;
+    copy.Jmx = Jmx;
+    copy.Verbose = Verbose;
+    copy.YieldMode = YieldMode;
+    copy.Quiet = Quiet;
+
+    return copy;
+  }
+
   private static void printHelp() {
     System.out.println("Usage:");
     System.out.println("\tjava [java_options] <mainclass> [oscar_controller_options]");
@@ -282,6 +617,124 @@ public final class ControllerOptions {
       );
   }
 
+  public static TimeUnit parseTimeUnit(String arg) {
+    switch (arg.toLowerCase()) {
+      case "ns":
+        return TimeUnit.NANOSECONDS;
+      case "us":
+        return TimeUnit.MICROSECONDS;
+      case "ms":
+        return TimeUnit.MILLISECONDS;
+      case "s":
+        return TimeUnit.SECONDS;
+      default:
+        throw new RuntimeException("Invalid time unit '" + arg + "', expected ns, us, ms or s.");
+    }
+  }
+
+  /**
+   * @return the regular expression, once checked to be valid
+   */
+  public static String parsePattern(String arg) {
+    try {
+      Pattern.compile(arg);
+      return arg;
+    } catch (PatternSyntaxException e) {
+      throw new RuntimeException("Invalid regular expression '" + arg + "'.", e);
+    }
+  }
+
+  /**
+   * Check the ranges of the options and the modes that cannot be combined
+   */
+  public void validate() {
+    if (MinNoiseIntensity < 0)
+      throw new RuntimeException("Invalid value for 'min noise intensity', must be higher or equal to 0.");
+
+    if (MaxNoiseIntensity < 0)
+      throw new RuntimeException("Invalid value for 'max noise intensity', must be higher or equal to 0.");
+
+    if (MinNoiseIntensity > MaxNoiseIntensity)
+      throw new RuntimeException("Minimum sleep length should be lower than maximum.");
+
+    if (NoiseProbability < 0 || NoiseProbability > 1)
+      throw new RuntimeException("Invalid value for 'noise probability', must be higher or equal to 0 and lower or equal to 1.");
+
+    if (GlobalNoiseBudget < 0)
+      throw new RuntimeException("Invalid value for 'global noise budget', must be higher or equal to 0.");
+
+    if (ThreadNoiseBudget < 0)
+      throw new RuntimeException("Invalid value for 'thread noise budget', must be higher or equal to 0.");
+
+    if (BackoffThreshold <= 0)
+      throw new RuntimeException("Invalid value for 'backoff threshold', must be higher than 0.");
+
+    if (BackoffWindow < 0)
+      throw new RuntimeException("Invalid value for 'backoff window', must be higher or equal to 0.");
+
+    if (PctDepth < 0)
+      throw new RuntimeException("Invalid value for 'PCT depth', must be higher or equal to 0.");
+
+    if (PctSteps <= 0)
+      throw new RuntimeException("Invalid value for 'PCT steps', must be higher than 0.");
+
+    if (PreemptionBound < 0)
+      throw new RuntimeException("Invalid value for 'preemption bound', must be higher or equal to 0.");
+
+    if (SchedulerTimeout <= 0)
+      throw new RuntimeException("Invalid value for 'scheduler timeout', must be higher than 0.");
+
+    if (RendezvousParties == 1 || RendezvousParties < 0)
+      throw new RuntimeException("Invalid value for 'rendezvous parties', must be 0 or higher than 1.");
+
+    if (RendezvousTimeout <= 0)
+      throw new RuntimeException("Invalid value for 'rendezvous timeout', must be higher than 0.");
+
+    if (Scheduler != null && RendezvousParties > 0)
+      throw new RuntimeException("Scheduler and rendezvous modes cannot be combined.");
+
+    if (ActivationDelay < 0)
+      throw new RuntimeException("Invalid value for 'activation delay', must be higher or equal to 0.");
+
+    // -1 is no activation site
+    if (ActivationSite < -1)
+      throw new RuntimeException("Invalid value for 'activation site', must be higher or equal to 0.");
+
+    if (ActivationSiteHits <= 0)
+      throw new RuntimeException("Invalid value for 'activation site hits', must be higher than 0.");
+
+    if (ActiveDuration < 0)
+      throw new RuntimeException("Invalid value for 'active duration', must be higher or equal to 0.");
+
+    if (RandomThreads < 0)
+      throw new RuntimeException("Invalid value for 'random threads', must be higher or equal to 0.");
+
+    if (ExpectedThreads < 0)
+      throw new RuntimeException("Invalid value for 'expected threads', must be higher or equal to 0.");
+
+    if (WatchdogStallTimeout < 0)
+      throw new RuntimeException("Invalid value for 'watchdog stall timeout', must be higher or equal to 0.");
+
+    if (VirtualMonitorCap < 0)
+      throw new RuntimeException("Invalid value for 'virtual monitor cap', must be higher or equal to 0.");
+  }
+
+  /**
+   * @return a new JFR output, checking first that the JVM provides the Flight Recorder API, as loading the output
+   * without it fails. The output is compiled for Java 11 apart from the rest, so it is loaded by name.
+   */
+  public static ControllerOutput createJfrOutput() {
+    if (!ModuleLayer.boot().findModule("jdk.jfr").isPresent())
+      throw new RuntimeException("JFR output requires a JVM with the jdk.jfr module.");
+
+    try {
+      return (ControllerOutput) Class.forName("oscar.controller.util.output.JfrOutput").getDeclaredConstructor()
+                                    .newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("Failed to load JFR output.", e);
+    }
+  }
+
   private static int parseInt(String arg) {
     try {
       return Integer.parseInt(arg);
@@ -298,6 +751,14 @@ public final class ControllerOptions {
     }
   }
 
+  private static double parseDouble(String arg) {
+    try {
+      return Double.parseDouble(arg);
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Invalid argument for option '" + arg + "', expected a double.");
+    }
+  }
+
   private static float parseFloat(String arg) {
     try {
       return Float.parseFloat(arg);
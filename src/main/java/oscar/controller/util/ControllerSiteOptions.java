@@ -0,0 +1,11 @@
+package oscar.controller.util;
+
+/**
+ * Per-site overrides of the global noise options. Unset (null) values fall back to the global options.
+ */
+public final class ControllerSiteOptions {
+  public Boolean Enabled = null;
+  public Float NoiseProbability = null;
+  public Long MinNoiseIntensity = null;
+  public Long MaxNoiseIntensity = null;
+}
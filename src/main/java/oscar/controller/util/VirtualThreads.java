@@ -0,0 +1,53 @@
+package oscar.controller.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Virtual thread detection for programs running on JDKs with virtual threads. The controller compiles to Java 9,
+ * so {@code Thread.isVirtual} is looked up once and every thread is a platform thread on older JDKs.
+ */
+public final class VirtualThreads {
+  private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * @return true if the running JDK has virtual threads
+   */
+  public static boolean isSupported() {
+    return IS_VIRTUAL != null;
+  }
+
+  /**
+   * @return true if virtual threads blocking inside a monitor pin their carrier thread, as before JDK 24
+   */
+  public static boolean pinsInMonitors() {
+    return IS_VIRTUAL != null && Runtime.version().version().get(0) < 24;
+  }
+
+  /**
+   * @param thread thread to check
+   * @return true if the thread is a virtual thread
+   */
+  public static boolean isVirtual(Thread thread) {
+    if (IS_VIRTUAL == null)
+      return false;
+
+    try {
+      return (boolean) IS_VIRTUAL.invokeExact(thread);
+    } catch (Throwable e) {
+      throw new RuntimeException("Failed to check if thread '" + thread.getName() + "' is virtual.", e);
+    }
+  }
+
+  private static MethodHandle findIsVirtual() {
+    try {
+      return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+}
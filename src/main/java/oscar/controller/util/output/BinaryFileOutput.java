@@ -0,0 +1,242 @@
+package oscar.controller.util.output;
+
+import oscar.controller.util.VirtualThreads;
+import oscar.utils.logger.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Binary trace output where every thread appends fixed-size events to its own lock-free ring buffer,
+ * which a background drainer thread batch-writes to a file channel. See {@link BinaryTrace} for the file format.
+ */
+public class BinaryFileOutput implements ControllerOutput {
+  private static final Logger logger = LoggerFactory.getInstance(BinaryFileOutput.class);
+
+  private static final int RING_CAPACITY = 1 << 13;
+  // Virtual threads are numerous and short-lived, so their rings are kept small
+  private static final int VIRTUAL_RING_CAPACITY = 1 << 8;
+  private static final int BATCH_SIZE = 1 << 16;
+  private static final long DRAIN_INTERVAL_NANOS = 1_000_000;
+
+  private final String filepath;
+  private final FileChannel channel;
+  private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+  private final AtomicLong sequence = new AtomicLong(BinaryTrace.FIRST_SEQUENCE);
+  private final AtomicInteger threadCount = new AtomicInteger(0);
+  // Rings of new threads, taken over by the drainer, which owns the list of rings and drops those of ended threads
+  private final ConcurrentLinkedQueue<RingBuffer> registered = new ConcurrentLinkedQueue<>();
+  private final List<RingBuffer> buffers = new ArrayList<>();
+  private final ThreadLocal<RingBuffer> threadBuffer = ThreadLocal.withInitial(this::registerThread);
+
+  private final Thread drainer;
+  private volatile boolean running = true;
+  private boolean failed = false;
+
+  public BinaryFileOutput() {
+    logger.info("Initializing binary file controller output.");
+
+    File file = FileOutput.createOutputFile(".bin");
+    this.filepath = file.getPath();
+
+    try {
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      writeFully(BinaryTrace.header(0));
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open file '" + filepath + "'.", e);
+    }
+
+    drainer = new Thread(this::drainLoop, "oscar-trace-drainer");
+    drainer.setDaemon(true);
+    drainer.start();
+  }
+
+  @Override
+  public void writeHeader(long seed) {
+    // Events are only appended after the header, so it can be rewritten in place
+    try {
+      channel.write(BinaryTrace.header(seed), 0);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write to file '" + filepath + "'.", e);
+    }
+  }
+
+  @Override
+  public void write(long threadID, int siteID, boolean virtual) {
+    // The sequence number is the only shared write, it is what makes the total order reconstructable
+    threadBuffer.get().offer(sequence.getAndIncrement(), siteID);
+  }
+
+  @Override
+  public void terminate() {
+    running = false;
+    LockSupport.unpark(drainer);
+
+    try {
+      drainer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    drainAll();
+    flushBatch();
+
+    try {
+      channel.force(false);
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to close file '" + filepath + "'.", e);
+    }
+
+    logger.info("Wrote " + (sequence.get() - BinaryTrace.FIRST_SEQUENCE) + " trace events from " + threadCount.get() + " threads to '" + filepath + "'.");
+  }
+
+  private RingBuffer registerThread() {
+    Thread thread = Thread.currentThread();
+    boolean virtual = VirtualThreads.isVirtual(thread);
+    RingBuffer buffer = new RingBuffer(this, thread, threadCount.getAndIncrement(),
+                                       virtual ? VIRTUAL_RING_CAPACITY : RING_CAPACITY);
+
+    // The thread record maps the ordinal back to the Java thread id
+    buffer.offer(thread.getId(), virtual ? BinaryTrace.VIRTUAL_THREAD_RECORD : BinaryTrace.THREAD_RECORD);
+    registered.add(buffer);
+
+    return buffer;
+  }
+
+  private void drainLoop() {
+    while (running) {
+      if (!drainAll()) {
+        flushBatch();
+        LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+      }
+    }
+  }
+
+  /**
+   * @return true if any event was drained
+   */
+  private boolean drainAll() {
+    boolean drained = false;
+
+    for (RingBuffer buffer; (buffer = registered.poll()) != null; )
+      buffers.add(buffer);
+
+    for (Iterator<RingBuffer> iterator = buffers.iterator(); iterator.hasNext(); ) {
+      RingBuffer buffer = iterator.next();
+      // Checked before draining, an ended thread published all its events
+      boolean ended = !buffer.thread.isAlive();
+
+      drained |= buffer.drainTo();
+
+      if (ended)
+        iterator.remove();
+    }
+
+    return drained;
+  }
+
+  private void put(long sequence, int threadOrdinal, int siteID) {
+    if (batch.remaining() < BinaryTrace.EVENT_SIZE)
+      flushBatch();
+
+    BinaryTrace.putEvent(batch, sequence, threadOrdinal, siteID);
+  }
+
+  private void flushBatch() {
+    batch.flip();
+
+    // Keep draining after a write failure, so instrumented threads never block on a full ring
+    if (!failed)
+      try {
+        writeFully(batch);
+      } catch (IOException e) {
+        failed = true;
+        logger.severe("Failed to write to file '" + filepath + "', dropping further trace events: " + e.getMessage());
+      }
+
+    batch.clear();
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+  }
+
+  /**
+   * Single producer, single consumer ring of events. The owning thread publishes events by advancing the tail,
+   * the drainer releases slots by advancing the head.
+   */
+  private static final class RingBuffer {
+    private static final AtomicLongFieldUpdater<RingBuffer> HEAD = AtomicLongFieldUpdater.newUpdater(RingBuffer.class, "head");
+    private static final AtomicLongFieldUpdater<RingBuffer> TAIL = AtomicLongFieldUpdater.newUpdater(RingBuffer.class, "tail");
+
+    private final BinaryFileOutput output;
+    private final Thread thread;
+    private final int threadOrdinal;
+    private final int capacity;
+    private final long[] sequences;
+    private final int[] sites;
+
+    private volatile long head = 0;
+    private volatile long tail = 0;
+
+    private RingBuffer(BinaryFileOutput output, Thread thread, int threadOrdinal, int capacity) {
+      this.output = output;
+      this.thread = thread;
+      this.threadOrdinal = threadOrdinal;
+      this.capacity = capacity;
+      this.sequences = new long[capacity];
+      this.sites = new int[capacity];
+    }
+
+    private void offer(long sequence, int siteID) {
+      long currentTail = tail;
+
+      // Wait for the drainer if the ring is full, dropping events would break the total order. Once the output
+      // terminated, nothing drains the ring anymore and the event is dropped.
+      while (currentTail - head >= capacity) {
+        if (!output.running)
+          return;
+
+        LockSupport.unpark(output.drainer);
+        Thread.yield();
+      }
+
+      int index = (int) (currentTail & (capacity - 1));
+      sequences[index] = sequence;
+      sites[index] = siteID;
+      TAIL.lazySet(this, currentTail + 1);
+    }
+
+    private boolean drainTo() {
+      long currentHead = head;
+      long currentTail = tail;
+
+      if (currentHead == currentTail)
+        return false;
+
+      for (long i = currentHead; i < currentTail; i++) {
+        int index = (int) (i & (capacity - 1));
+        output.put(sequences[index], threadOrdinal, sites[index]);
+      }
+
+      HEAD.lazySet(this, currentTail);
+      return true;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package oscar.controller.util.output;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Binary trace format shared by the binary controller outputs.
+ * <p>
+ * A trace starts with a header (8 byte magic, int version, int event size, long run seed) followed by fixed-size events:
+ * a long global sequence number, an int thread ordinal and an int site id, all little endian.
+ * Events with the site id {@link #THREAD_RECORD} register a thread ordinal, their sequence field holds the Java
+ * thread id. Virtual threads are registered with {@link #VIRTUAL_THREAD_RECORD} instead (since version 2). Events are not stored in sequence order, sorting them by sequence number restores the total order.
+ * Sequence numbers start at {@link #FIRST_SEQUENCE}, so all-zero records are slots that were never written
+ * (e.g. the preallocated tail of a trace whose program was killed) and are skipped.
+ * <p>
+ * Running this class decodes a binary trace into the text trace format (a "# seed" line, then "thread-id site-id"
+ * lines in order, followed by "v" for virtual threads).
+ */
+public final class BinaryTrace {
+  public static final byte[] MAGIC = {'O', 'S', 'C', 'A', 'R', 'T', 'R', 'C'};
+  public static final int VERSION = 3;
+  public static final int HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES + Long.BYTES;
+  // Versions before 3 have no seed in their header
+  private static final int UNSEEDED_HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES;
+  public static final int EVENT_SIZE = Long.BYTES + 2 * Integer.BYTES;
+  public static final int THREAD_RECORD = -1;
+  public static final int VIRTUAL_THREAD_RECORD = -2;
+  public static final long FIRST_SEQUENCE = 1;
+
+  public static ByteBuffer header(long seed) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(MAGIC).putInt(VERSION).putInt(EVENT_SIZE).putLong(seed);
+    header.flip();
+    return header;
+  }
+
+  public static void putEvent(ByteBuffer buffer, long sequence, int threadOrdinal, int siteID) {
+    buffer.putLong(sequence).putInt(threadOrdinal).putInt(siteID);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.out.println("Usage: java oscar.controller.util.output.BinaryTrace <trace file>");
+      System.exit(1);
+    }
+
+    PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+    decode(args[0], writer);
+    writer.flush();
+  }
+
+  /**
+   * Decode a binary trace into the text trace format, ordered by sequence number
+   *
+   * @param file   binary trace file
+   * @param writer text trace destination
+   */
+  public static void decode(String file, PrintWriter writer) throws IOException {
+    ByteBuffer trace;
+
+    try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+      trace = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+
+      while (trace.hasRemaining() && channel.read(trace) >= 0) ;
+      trace.flip();
+    }
+
+    if (trace.remaining() < UNSEEDED_HEADER_SIZE)
+      throw new RuntimeException("File '" + file + "' is not an OSCAR binary trace.");
+
+    byte[] magic = new byte[MAGIC.length];
+    trace.get(magic);
+
+    if (!Arrays.equals(magic, MAGIC))
+      throw new RuntimeException("File '" + file + "' is not an OSCAR binary trace.");
+
+    int version = trace.getInt();
+    int eventSize = trace.getInt();
+
+    // Version 1 traces only lack virtual thread records and version 2 traces the seed
+    if (version < 1 || version > VERSION || eventSize != EVENT_SIZE)
+      throw new RuntimeException("Unsupported binary trace version " + version + ".");
+
+    if (version >= 3) {
+      if (trace.remaining() < Long.BYTES)
+        throw new RuntimeException("File '" + file + "' is not an OSCAR binary trace.");
+
+      writer.println("# seed " + trace.getLong());
+    }
+
+    // Incomplete trailing events, left by killed runs, are ignored
+    int eventCount = trace.remaining() / EVENT_SIZE;
+    long[] sequences = new long[eventCount];
+    long[] events = new long[eventCount];
+    HashMap<Integer, Long> threadIDs = new HashMap<>();
+    HashSet<Integer> virtualThreads = new HashSet<>();
+    int count = 0;
+
+    for (int i = 0; i < eventCount; i++) {
+      long sequence = trace.getLong();
+      int threadOrdinal = trace.getInt();
+      int siteID = trace.getInt();
+
+      if (sequence == 0 && threadOrdinal == 0 && siteID == 0)
+        continue;
+
+      if (siteID == THREAD_RECORD || siteID == VIRTUAL_THREAD_RECORD) {
+        threadIDs.put(threadOrdinal, sequence);
+
+        if (siteID == VIRTUAL_THREAD_RECORD)
+          virtualThreads.add(threadOrdinal);
+        continue;
+      }
+
+      sequences[count] = sequence;
+      events[count] = ((long) threadOrdinal << Integer.SIZE) | (siteID & 0xFFFFFFFFL);
+      count++;
+    }
+
+    // Sort event indexes by sequence number
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++)
+      order[i] = i;
+    Arrays.sort(order, (a, b) -> Long.compare(sequences[a], sequences[b]));
+
+    for (int i : order) {
+      int threadOrdinal = (int) (events[i] >>> Integer.SIZE);
+      int siteID = (int) events[i];
+
+      writer.println(threadIDs.getOrDefault(threadOrdinal, (long) threadOrdinal) + " " + siteID +
+                         (virtualThreads.contains(threadOrdinal) ? " v" : ""));
+    }
+  }
+}
@@ -11,8 +11,13 @@ public class ConsoleOutput implements ControllerOutput {
   }
 
   @Override
-  public void write(String output) {
-    System.out.println(output);
+  public void writeHeader(long seed) {
+    System.out.println("# seed " + seed);
+  }
+
+  @Override
+  public void write(long threadID, int siteID, boolean virtual) {
+    System.out.println(virtual ? threadID + " " + siteID + " v" : threadID + " " + siteID);
   }
 
   @Override
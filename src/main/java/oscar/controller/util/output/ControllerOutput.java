@@ -1,7 +1,52 @@
 package oscar.controller.util.output;
 
 public interface ControllerOutput {
-  void write(String output);
+  /**
+   * Write the trace header, called once before the first event
+   *
+   * @param seed seed of the run
+   */
+  void writeHeader(long seed);
+
+  /**
+   * @param threadID Java id of the calling thread
+   * @param siteID   noise site id
+   * @param virtual  true if the calling thread is a virtual thread
+   */
+  void write(long threadID, int siteID, boolean virtual);
+
+  /**
+   * @return true if the output traces the noise injected at sites, see {@link #writeNoise}
+   */
+  default boolean tracesNoise() {
+    return false;
+  }
+
+  /**
+   * Mark the start of the noise about to be injected at a site, only called if the output
+   * {@link #tracesNoise() traces noise}
+   *
+   * @param threadID Java id of the calling thread
+   * @param siteID   noise site id
+   * @param virtual  true if the calling thread is a virtual thread
+   * @return state of the noise passed back to {@link #writeNoise}, or null
+   */
+  default Object beginNoise(long threadID, int siteID, boolean virtual) {
+    return null;
+  }
+
+  /**
+   * Write the noise injected at a site, only called if the output {@link #tracesNoise() traces noise}. Noise that
+   * was begun but skipped, e.g. by the noise budget, is never written.
+   *
+   * @param noise    state returned by {@link #beginNoise}
+   * @param threadID Java id of the calling thread
+   * @param siteID   noise site id
+   * @param virtual  true if the calling thread is a virtual thread
+   * @param nanos    time the thread was held by the noise, in nanoseconds
+   */
+  default void writeNoise(Object noise, long threadID, int siteID, boolean virtual, long nanos) {
+  }
 
   void terminate();
 }
@@ -19,7 +19,40 @@ public abstract class FileOutput implements ControllerOutput {
   public FileOutput() {
     logger.info("Initializing File controller output.");
 
-    this.filepath = "oscar_output" + File.separator + "oscar_output_" + Instant.now() + ".txt";
+    File file = createOutputFile(".txt");
+    this.filepath = file.getPath();
+
+    logger.fine("Opening file '" + filepath + "'.");
+    try {
+      // scanner = new Scanner(file);
+      writer = new FileWriter(file);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open file '" + filepath + "'.", e);
+    }
+  }
+
+  @Override
+  public void writeHeader(long seed) {
+    try {
+      writer.write("# seed " + seed + "\n");
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write to file '" + filepath + "'.", e);
+    }
+  }
+
+  static File createOutputFile(String extension) {
+    return createOutputFile("oscar_output", extension);
+  }
+
+  /**
+   * Create a new timestamped file in the output directory
+   *
+   * @param name      file name prefix
+   * @param extension file extension, including the dot
+   * @return the created file
+   */
+  public static File createOutputFile(String name, String extension) {
+    String filepath = "oscar_output" + File.separator + name + "_" + Instant.now() + extension;
     File file = new File(filepath);
 
     logger.fine("Creating directories for output file'" + filepath + "'.");
@@ -37,12 +70,6 @@ public abstract class FileOutput implements ControllerOutput {
       logger.info("File '" + filepath + "' seems to already exist.");
     }
 
-    logger.fine("Opening file '" + filepath + "'.");
-    try {
-      // scanner = new Scanner(file);
-      writer = new FileWriter(file);
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to open file '" + filepath + "'.", e);
-    }
+    return file;
   }
 }
@@ -1,30 +1,98 @@
 package oscar.controller.util.output;
 
+import oscar.controller.util.VirtualThreads;
 import oscar.utils.logger.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
+/**
+ * Text trace output that buffers events until the program ends. Every thread appends compact binary events to
+ * off-heap chunks of its own. Once the buffered chunks approach the memory cap, a background thread spills sealed
+ * chunks to a temporary file, so writes never touch the disk until memory pressure forces it. A thread finding no
+ * free chunk at the cap spills a sealed chunk itself rather than wait for the spiller, so no event is ever lost.
+ * The last chunk of an ended thread is copied to a buffer of its own size and freed for other threads.
+ * On termination the per-thread chunk streams are merged by sequence number into the text trace.
+ */
 public class LazyFileOutput extends FileOutput {
   private static final Logger logger = LoggerFactory.getInstance(LazyFileOutput.class);
 
-  private final ArrayList<String> buffer = new ArrayList<>();
+  public static final long DEFAULT_MEMORY_CAP_MB = 256;
+
+  // Events are a long sequence number followed by an int site id
+  private static final int EVENT_SIZE = Long.BYTES + Integer.BYTES;
+  // Every thread holds a partially filled chunk, small chunks keep them well under the cap with many threads
+  private static final int CHUNK_SIZE = (1 << 8) * EVENT_SIZE;
+  private static final int SPILL_BATCH = 1 << 6;
+  private static final long POLL_MILLIS = 1;
+  private static final long COMPACT_INTERVAL_NANOS = 10_000_000;
+
+  private final long memoryCap;
+  private final AtomicLong allocatedMemory = new AtomicLong(0);
+  private final AtomicLong sequence = new AtomicLong(0);
+
+  private final ConcurrentLinkedQueue<ThreadChunks> threads = new ConcurrentLinkedQueue<>();
+  // Threads not yet taken over by the spiller, which owns the list of threads that may still hold a chunk
+  private final ConcurrentLinkedQueue<ThreadChunks> registered = new ConcurrentLinkedQueue<>();
+  private final ArrayList<ThreadChunks> openThreads = new ArrayList<>();
+  private final ThreadLocal<ThreadChunks> threadChunks = ThreadLocal.withInitial(this::registerThread);
+  private final ConcurrentLinkedQueue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+  private final LinkedBlockingQueue<Chunk> sealedChunks = new LinkedBlockingQueue<>();
+
+  private final Path spillPath;
+  // Guards the spill channel position, spills run on the spiller and on writers at the cap
+  private final Object spillLock = new Object();
+  private volatile FileChannel spillChannel;
+  private long spillPosition = 0;
+  private final Thread spiller;
+  private volatile boolean running = true;
+  private volatile boolean capExceeded = false;
 
   public LazyFileOutput() {
+    this(DEFAULT_MEMORY_CAP_MB);
+  }
+
+  /**
+   * @param memoryCapMB maximum amount of off-heap memory used to buffer events before spilling them to disk
+   */
+  public LazyFileOutput(long memoryCapMB) {
     super();
+
+    if (memoryCapMB <= 0)
+      throw new RuntimeException("Invalid lazy file output memory cap, must be higher than 0.");
+
+    this.memoryCap = memoryCapMB * 1024 * 1024;
+    this.spillPath = Paths.get(filepath + ".spill");
+
+    // Controller threads do not inherit thread locals, so they take no part in the thread lineage
+    spiller = new Thread(null, this::spillLoop, "oscar-trace-spiller", 0, false);
+    spiller.setDaemon(true);
+    spiller.start();
   }
 
   @Override
-  public void write(String output) {
-    logger.fine("Writing to buffer.");
+  public void write(long threadID, int siteID, boolean virtual) {
+    ThreadChunks chunks = threadChunks.get();
 
-    if (output == null)
-      throw new RuntimeException("Null string fed to file output.");
+    if (chunks.current.remaining() < EVENT_SIZE)
+      chunks.seal();
 
-    synchronized (buffer) {
-      buffer.add(output + "\n");
-    }
+    chunks.current.putLong(sequence.getAndIncrement()).putInt(siteID);
   }
 
   @Override
@@ -32,19 +100,360 @@ public class LazyFileOutput extends FileOutput {
     if (writer == null)
       throw new RuntimeException("Writer is null.");
 
-    try {
-      synchronized (buffer) {
-        for (String s : buffer) {
-          if (s == null)
-            throw new RuntimeException("Null string fed to file output buffer.");
+    stopSpiller();
 
-          writer.write(s);
-        }
-      }
+    try {
+      mergeChunks();
       writer.flush();
       writer.close();
+
+      if (spillChannel != null) {
+        spillChannel.close();
+        Files.deleteIfExists(spillPath);
+      }
     } catch (IOException e) {
       throw new RuntimeException("Failed to write to file '" + filepath + "'.", e);
     }
   }
+
+  private ThreadChunks registerThread() {
+    Thread thread = Thread.currentThread();
+    ThreadChunks chunks = new ThreadChunks(thread, VirtualThreads.isVirtual(thread));
+    threads.add(chunks);
+    registered.add(chunks);
+    return chunks;
+  }
+
+  /**
+   * @return a free chunk. At the memory cap, sealed chunks are spilled on the calling thread until one is free.
+   */
+  private ByteBuffer acquireBuffer() {
+    while (true) {
+      ByteBuffer buffer = freeBuffers.poll();
+      if (buffer != null)
+        return buffer;
+
+      long allocated = allocatedMemory.addAndGet(CHUNK_SIZE);
+
+      // Start spilling ahead of the cap, so writers rarely have to spill themselves
+      if (allocated > memoryCap / 2)
+        startSpilling();
+
+      if (allocated <= memoryCap)
+        return ByteBuffer.allocateDirect(CHUNK_SIZE);
+
+      allocatedMemory.addAndGet(-CHUNK_SIZE);
+
+      Chunk chunk = sealedChunks.poll();
+      if (chunk == null)
+        break;
+
+      try {
+        spill(Collections.singletonList(chunk));
+      } catch (IOException e) {
+        logger.severe("Failed to spill trace chunk to '" + spillPath + "': " + e.getMessage());
+        break;
+      }
+
+      release(chunk);
+    }
+
+    // Every chunk in memory is still being filled by a live thread, go over the cap rather than lose events
+    if (!capExceeded) {
+      capExceeded = true;
+      logger.warning("Lazy file output memory cap reached with no chunks left to spill, exceeding cap.");
+    }
+
+    allocatedMemory.addAndGet(CHUNK_SIZE);
+    return ByteBuffer.allocateDirect(CHUNK_SIZE);
+  }
+
+  private void startSpilling() {
+    if (spillChannel != null)
+      return;
+
+    synchronized (spillLock) {
+      if (spillChannel != null)
+        return;
+
+      logger.info("Lazy file output reached " + allocatedMemory.get() / 1024 + "KB, spilling to '" + spillPath +
+                      "'.");
+
+      try {
+        spillChannel = FileChannel.open(spillPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to open spill file '" + spillPath + "'.", e);
+      }
+    }
+  }
+
+  private void stopSpiller() {
+    running = false;
+
+    // The spiller is not interrupted, as that would close the spill channel mid-write
+    try {
+      spiller.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void spillLoop() {
+    ArrayList<Chunk> batch = new ArrayList<>(SPILL_BATCH);
+    long nextCompaction = System.nanoTime();
+
+    while (running) {
+      if (System.nanoTime() - nextCompaction >= 0) {
+        compactEndedThreads();
+        nextCompaction = System.nanoTime() + COMPACT_INTERVAL_NANOS;
+      }
+
+      Chunk chunk;
+
+      try {
+        if (spillChannel == null) {
+          Thread.sleep(POLL_MILLIS);
+          continue;
+        }
+
+        chunk = sealedChunks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        break;
+      }
+
+      if (chunk == null)
+        continue;
+
+      batch.add(chunk);
+      sealedChunks.drainTo(batch, SPILL_BATCH - 1);
+
+      try {
+        spill(batch);
+      } catch (IOException e) {
+        // Unspilled chunks keep their memory, writers reaching the cap then go over it
+        logger.severe("Failed to spill trace chunk to '" + spillPath + "': " + e.getMessage());
+        break;
+      }
+
+      for (Chunk spilled : batch)
+        release(spilled);
+
+      batch.clear();
+    }
+  }
+
+  /**
+   * Copy the last chunk of every ended thread to a buffer of its own size, freeing the chunk for other threads
+   */
+  private void compactEndedThreads() {
+    for (ThreadChunks chunks; (chunks = registered.poll()) != null; )
+      openThreads.add(chunks);
+
+    for (Iterator<ThreadChunks> iterator = openThreads.iterator(); iterator.hasNext(); ) {
+      ThreadChunks chunks = iterator.next();
+
+      // An ended thread wrote all its events
+      if (!chunks.thread.isAlive()) {
+        chunks.compactLast();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Write the chunks to the spill file at once, after which their memory can be released
+   */
+  private void spill(List<Chunk> chunks) throws IOException {
+    ByteBuffer[] data = new ByteBuffer[chunks.size()];
+
+    synchronized (spillLock) {
+      long end = spillPosition;
+
+      for (int i = 0; i < data.length; i++) {
+        Chunk chunk = chunks.get(i);
+        data[i] = chunk.buffer.duplicate();
+        data[i].flip();
+
+        chunk.spillOffset = end;
+        end += chunk.size;
+      }
+
+      // The channel position is only moved by spills, reads use absolute positions
+      while (spillPosition < end)
+        spillPosition += spillChannel.write(data);
+    }
+  }
+
+  /**
+   * Free the memory of a spilled chunk, returning full-size chunks to the free ones
+   */
+  private void release(Chunk chunk) {
+    ByteBuffer buffer = chunk.buffer;
+    chunk.buffer = null;
+
+    if (buffer.capacity() == CHUNK_SIZE && buffer.isDirect()) {
+      buffer.clear();
+      freeBuffers.add(buffer);
+    } else {
+      allocatedMemory.addAndGet(-buffer.capacity());
+    }
+  }
+
+  /**
+   * Merge every thread's chunk stream, each already ordered by sequence number, into the text trace
+   */
+  private void mergeChunks() throws IOException {
+    PriorityQueue<ThreadCursor> cursors = new PriorityQueue<>((a, b) -> Long.compare(a.sequence, b.sequence));
+
+    for (ThreadChunks chunks : threads) {
+      ThreadCursor cursor = new ThreadCursor(chunks);
+
+      if (cursor.next())
+        cursors.add(cursor);
+    }
+
+    while (!cursors.isEmpty()) {
+      ThreadCursor cursor = cursors.poll();
+      writer.write(cursor.threadID + " " + cursor.siteID + (cursor.virtual ? " v\n" : "\n"));
+
+      if (cursor.next())
+        cursors.add(cursor);
+    }
+  }
+
+  /**
+   * Chunks of events written by a single thread, in write order
+   */
+  private final class ThreadChunks {
+    private final Thread thread;
+    private final long threadID;
+    private final boolean virtual;
+    private final ArrayList<Chunk> sealed = new ArrayList<>();
+    private ByteBuffer current = acquireBuffer();
+
+    private ThreadChunks(Thread thread, boolean virtual) {
+      this.thread = thread;
+      this.threadID = thread.getId();
+      this.virtual = virtual;
+    }
+
+    /**
+     * Hand the current chunk to the spiller and take a new one
+     */
+    private void seal() {
+      Chunk chunk = new Chunk(current);
+
+      synchronized (this) {
+        sealed.add(chunk);
+      }
+
+      sealedChunks.add(chunk);
+      current = acquireBuffer();
+    }
+
+    /**
+     * Copy the events of the ended thread's current chunk to a buffer of their size, so the chunk can be reused
+     */
+    private void compactLast() {
+      ByteBuffer last = current;
+
+      if (last.position() > 0) {
+        ByteBuffer events = last.duplicate();
+        events.flip();
+
+        Chunk chunk = new Chunk(ByteBuffer.allocate(events.remaining()).put(events));
+        allocatedMemory.addAndGet(chunk.size);
+
+        synchronized (this) {
+          sealed.add(chunk);
+          current = null;
+        }
+
+        // Compacted chunks still count against the cap and are spilled like the others
+        sealedChunks.add(chunk);
+      } else {
+        synchronized (this) {
+          current = null;
+        }
+      }
+
+      last.clear();
+      freeBuffers.add(last);
+    }
+
+    private synchronized ArrayList<Chunk> getChunks() {
+      ArrayList<Chunk> chunks = new ArrayList<>(sealed);
+
+      if (current != null)
+        chunks.add(new Chunk(current));
+
+      return chunks;
+    }
+  }
+
+  /**
+   * Sealed chunk of events, either held in memory or spilled to disk
+   */
+  private final class Chunk {
+    private final int size;
+    private volatile ByteBuffer buffer;
+    private volatile long spillOffset = -1;
+
+    private Chunk(ByteBuffer buffer) {
+      this.size = buffer.position();
+      this.buffer = buffer;
+    }
+
+    private ByteBuffer read() throws IOException {
+      ByteBuffer data = buffer;
+
+      if (data != null) {
+        data = data.duplicate();
+        data.position(0).limit(size);
+        return data;
+      }
+
+      data = ByteBuffer.allocate(size);
+      while (data.hasRemaining())
+        if (spillChannel.read(data, spillOffset + data.position()) < 0)
+          throw new IOException("Unexpected end of spill file.");
+
+      data.flip();
+      return data;
+    }
+  }
+
+  /**
+   * Iterates the events of a single thread across its chunks
+   */
+  private static final class ThreadCursor {
+    private final long threadID;
+    private final boolean virtual;
+    private final ArrayList<Chunk> chunks;
+    private int chunkIndex = 0;
+    private ByteBuffer data = null;
+
+    private long sequence;
+    private int siteID;
+
+    private ThreadCursor(ThreadChunks threadChunks) {
+      this.threadID = threadChunks.threadID;
+      this.virtual = threadChunks.virtual;
+      this.chunks = threadChunks.getChunks();
+    }
+
+    private boolean next() throws IOException {
+      while (data == null || data.remaining() < EVENT_SIZE) {
+        if (chunkIndex == chunks.size())
+          return false;
+
+        data = chunks.get(chunkIndex++).read();
+      }
+
+      sequence = data.getLong();
+      siteID = data.getInt();
+      return true;
+    }
+  }
 }
@@ -0,0 +1,155 @@
+package oscar.controller.util.output;
+
+import oscar.controller.util.VirtualThreads;
+import oscar.utils.logger.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Binary trace output that writes events straight into memory-mapped regions of the trace file.
+ * Written events live in the OS page cache, so they survive the JVM being killed or timing out without
+ * an fsync per event. The file grows one region at a time, see {@link BinaryTrace} for the file format. On
+ * termination the unused tail of the last region is truncated, only crashed runs leave it zeroed.
+ */
+public class MappedFileOutput implements ControllerOutput {
+  private static final Logger logger = LoggerFactory.getInstance(MappedFileOutput.class);
+
+  private static final int EVENTS_PER_REGION = 1 << 20;
+  private static final long REGION_SIZE = (long) EVENTS_PER_REGION * BinaryTrace.EVENT_SIZE;
+  // Added to the sequence on termination, writes reserving a slot past it are dropped instead of touching the
+  // truncated part of the mapping
+  private static final long TERMINATED = 1L << 62;
+
+  private final String filepath;
+  private final FileChannel channel;
+
+  // Every reserved sequence number owns the event slot at the same index
+  private final AtomicLong sequence = new AtomicLong(BinaryTrace.FIRST_SEQUENCE);
+  private final AtomicInteger threadCount = new AtomicInteger(0);
+  private final ThreadLocal<Integer> threadOrdinal = ThreadLocal.withInitial(this::registerThread);
+
+  private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+  public MappedFileOutput() {
+    logger.info("Initializing memory-mapped file controller output.");
+
+    File file = FileOutput.createOutputFile(".bin");
+    this.filepath = file.getPath();
+
+    try {
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                 StandardOpenOption.TRUNCATE_EXISTING);
+      channel.write(BinaryTrace.header(0), 0);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open file '" + filepath + "'.", e);
+    }
+
+    // Preallocate the first region
+    getRegion(0);
+  }
+
+  @Override
+  public void writeHeader(long seed) {
+    try {
+      channel.write(BinaryTrace.header(seed), 0);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write to file '" + filepath + "'.", e);
+    }
+  }
+
+  @Override
+  public void write(long threadID, int siteID, boolean virtual) {
+    long slot = sequence.getAndIncrement();
+    int ordinal = threadOrdinal.get();
+
+    if (slot < TERMINATED)
+      writeEvent(slot, ordinal, siteID);
+  }
+
+  @Override
+  public void terminate() {
+    long writtenEvents = sequence.getAndAdd(TERMINATED) - BinaryTrace.FIRST_SEQUENCE;
+
+    try {
+      for (MappedByteBuffer region : regions)
+        region.force();
+
+      channel.truncate(BinaryTrace.HEADER_SIZE + writtenEvents * BinaryTrace.EVENT_SIZE);
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to close file '" + filepath + "'.", e);
+    }
+
+    logger.info("Wrote " + writtenEvents + " trace events from " + threadCount.get() + " threads to '" + filepath +
+                    "'.");
+  }
+
+  String getFilepath() {
+    return filepath;
+  }
+
+  private int registerThread() {
+    int ordinal = threadCount.getAndIncrement();
+    Thread thread = Thread.currentThread();
+    int record = VirtualThreads.isVirtual(thread) ? BinaryTrace.VIRTUAL_THREAD_RECORD : BinaryTrace.THREAD_RECORD;
+
+    // Thread records take a slot of their own, their sequence field holds the Java thread id
+    long slot = sequence.getAndIncrement();
+
+    if (slot < TERMINATED)
+      writeEvent(slot, ordinal, record, thread.getId());
+
+    return ordinal;
+  }
+
+  private void writeEvent(long sequence, int threadOrdinal, int siteID) {
+    writeEvent(sequence, threadOrdinal, siteID, sequence);
+  }
+
+  private void writeEvent(long slot, int threadOrdinal, int siteID, long sequenceField) {
+    long index = slot - BinaryTrace.FIRST_SEQUENCE;
+    MappedByteBuffer region = getRegion((int) (index / EVENTS_PER_REGION));
+    int offset = (int) (index % EVENTS_PER_REGION) * BinaryTrace.EVENT_SIZE;
+
+    // The sequence is written last, a killed run leaves either a complete event or a zero sequence behind
+    region.putInt(offset + Long.BYTES, threadOrdinal);
+    region.putInt(offset + Long.BYTES + Integer.BYTES, siteID);
+    region.putLong(offset, sequenceField);
+  }
+
+  private MappedByteBuffer getRegion(int regionIndex) {
+    MappedByteBuffer[] currentRegions = regions;
+
+    if (regionIndex < currentRegions.length)
+      return currentRegions[regionIndex];
+
+    return mapRegions(regionIndex);
+  }
+
+  private synchronized MappedByteBuffer mapRegions(int regionIndex) {
+    MappedByteBuffer[] newRegions = Arrays.copyOf(regions, Math.max(regions.length, regionIndex + 1));
+
+    for (int i = regions.length; i <= regionIndex; i++) {
+      logger.fine("Mapping trace region " + i + " of file '" + filepath + "'.");
+
+      try {
+        newRegions[i] = channel.map(FileChannel.MapMode.READ_WRITE, BinaryTrace.HEADER_SIZE + i * REGION_SIZE, REGION_SIZE);
+        newRegions[i].order(ByteOrder.LITTLE_ENDIAN);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to map region " + i + " of file '" + filepath + "'.", e);
+      }
+    }
+
+    regions = newRegions;
+    return newRegions[regionIndex];
+  }
+}
@@ -3,6 +3,7 @@ package oscar.controller.util.output;
 import oscar.utils.logger.LoggerFactory;
 
 import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class RegularFileOutput extends FileOutput {
@@ -13,11 +14,12 @@ public class RegularFileOutput extends FileOutput {
   }
 
   @Override
-  public synchronized void write(String output) {
-    logger.fine("Writing to file '" + filepath + "'.");
+  public synchronized void write(long threadID, int siteID, boolean virtual) {
+    if (logger.isLoggable(Level.FINE))
+      logger.fine("Writing to file '" + filepath + "'.");
 
     try {
-      writer.write(output + "\n");
+      writer.write(virtual ? threadID + " " + siteID + " v\n" : threadID + " " + siteID + "\n");
     } catch (IOException e) {
       throw new RuntimeException("Failed to write to file '" + filepath + "'.", e);
     }
@@ -8,6 +8,7 @@ import org.apache.commons.io.filefilter.*;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 import oscar.controller.Controller;
+import oscar.controller.noise.NoiseSiteManifest;
 import oscar.transformers.IJimpleTransformer;
 import oscar.transformers.JimpleSceneTransformer;
 import oscar.transformers.JimpleTransformer;
@@ -23,6 +24,7 @@ import oscar.transformers.noisers.sync.SynchronizedBlockNoiser;
 import oscar.transformers.noisers.sync.SynchronizedMethodCallNoiser;
 import oscar.transformers.noisers.thread.ThreadCreationNoiser;
 import oscar.transformers.noisers.misc.ThreadExternalFieldNoiser;
+import oscar.engine.utils.NoiseSiteRegistry;
 import oscar.utils.ClassWriter;
 import oscar.utils.logger.LoggerFactory;
 import oscar.utils.logger.LoggerFormatter;
@@ -134,6 +136,10 @@ public final class Engine {
     Options.v().set_soot_classpath(OSCAR_TEMP_EXTRACT_DIR);
     Options.v().set_process_dir(Collections.singletonList(OSCAR_TEMP_EXTRACT_DIR));
     Options.v().set_force_overwrite(true);
+    Options.v().set_keep_line_number(true);
+    Options.v().set_keep_offset(true);
+
+    NoiseSiteRegistry.reset();
 
     // Try to create temp folder
     try {
@@ -200,6 +206,12 @@ public final class Engine {
     logger.info("Writing Soot output.");
     PackManager.v().writeOutput();
 
+    // Write the noise site manifest next to the generated classes, so it is packed with them
+    Path manifestPath = Paths.get(Options.v().output_dir(), NoiseSiteManifest.FILENAME);
+    logger.info("Writing noise site manifest with " + NoiseSiteRegistry.getSites().size() + " sites to '" +
+                    manifestPath + "'.");
+    NoiseSiteManifest.write(manifestPath, NoiseSiteRegistry.getSites());
+
     // If output is jar, create jar
     if (JarMode) {
       Options.v().set_output_dir(OSCAR_TEMP_GENERATED_DIR);
@@ -1,6 +1,7 @@
 package oscar.engine.generators;
 
 import oscar.controller.noise.NoiseLocation;
+import oscar.engine.utils.NoiseSiteRegistry;
 import oscar.transformers.noisers.NoiserTag;
 import soot.*;
 import soot.jimple.*;
@@ -8,7 +9,6 @@ import soot.jimple.internal.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 public class StatementGenerator {
   private final LocalGenerator localGenerator;
@@ -102,29 +102,25 @@ public class StatementGenerator {
     return statements;
   }
 
-  public List<Unit> noise(NoiseLocation noiseLoc) {
-    // Instantiate enum value
-    JimpleLocal enumLocal = localGenerator.fromType(RefType.v(noiseLoc.getClass().getName()));
-
-    StaticFieldRef enumField = Jimple.v().newStaticFieldRef(new AbstractSootFieldRef(
-        Scene.v().getSootClass(noiseLoc.getClass().getName()),
-        noiseLoc.name(),
-        enumLocal.getType(),
-        true
-    ));
-
-    JAssignStmt enumAssign = new JAssignStmt(enumLocal, enumField);
+  /**
+   * Generate a call to the noise controller for a newly registered noise site
+   *
+   * @param noiseLoc instrumented location type
+   * @param anchor   original statement the noise is placed around, used for the site manifest
+   * @return the generated statements
+   */
+  public List<Unit> noise(NoiseLocation noiseLoc, Unit anchor) {
+    int siteID = NoiseSiteRegistry.register(noiseLoc, body.getMethod(), anchor);
 
     Stmt noiseStmt = staticInvoke(
         "oscar.controller.Controller",
-        "void noise(oscar.controller.noise.NoiseLocation,java.lang.String)",
-        List.of(enumLocal, StringConstant.v(UUID.randomUUID().toString()))
+        "void noise(int)",
+        List.of(IntConstant.v(siteID))
     );
 
-    enumAssign.addTag(NoiserTag.OSCAR_INSTRUMENTED);
     noiseStmt.addTag(NoiserTag.OSCAR_INSTRUMENTED);
 
-    return List.of(enumAssign, noiseStmt);
+    return List.of(noiseStmt);
   }
 
   /*
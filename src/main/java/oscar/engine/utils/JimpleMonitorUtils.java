@@ -0,0 +1,130 @@
+package oscar.engine.utils;
+
+import soot.Body;
+import soot.SootMethod;
+import soot.Trap;
+import soot.Unit;
+import soot.jimple.GotoStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.NopStmt;
+import soot.jimple.internal.JEnterMonitorStmt;
+import soot.jimple.internal.JExitMonitorStmt;
+import soot.toolkits.graph.BriefUnitGraph;
+
+import java.util.*;
+
+public class JimpleMonitorUtils {
+  // Deeper nesting only happens in unbalanced bytecode, capping it keeps the analysis finite on loops
+  private static final int MAX_DEPTH = 16;
+
+  // Monitor depths of the units of every analysed body, inserted units are analysed on demand
+  private static final Map<Body, Map<Unit, Integer>> depths = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /***
+   * Check if a statement runs while the method holds a monitor, because the method is synchronized or the
+   * statement is between the monitor enter and exit of a synchronized block. Monitor statements themselves are
+   * only inside if the monitor is held both before and after them.
+   * @param method method of the statement
+   * @param unit   statement to check
+   * @return true if the statement is inside a monitor
+   */
+  public static boolean isInsideMonitor(SootMethod method, Unit unit) {
+    if (method.isSynchronized())
+      return true;
+
+    Body body = method.getActiveBody();
+    Map<Unit, Integer> bodyDepths = depths.get(body);
+
+    if (bodyDepths == null || !bodyDepths.containsKey(unit)) {
+      bodyDepths = analyse(body);
+      depths.put(body, bodyDepths);
+    }
+
+    int depth = bodyDepths.getOrDefault(unit, 0);
+    return Math.min(depth, depth + change(unit)) > 0;
+  }
+
+  /***
+   * Compute the monitor depth before every statement, the highest over all paths reaching it
+   * @param body body to analyse
+   * @return monitor depth before each statement
+   */
+  private static Map<Unit, Integer> analyse(Body body) {
+    BriefUnitGraph graph = new BriefUnitGraph(body);
+    Map<Unit, List<Unit>> handlers = getHandlers(body);
+
+    Map<Unit, Integer> depthsBefore = new HashMap<>();
+    ArrayDeque<Unit> worklist = new ArrayDeque<>(graph.getHeads());
+    for (Unit head : graph.getHeads())
+      depthsBefore.put(head, 0);
+
+    while (!worklist.isEmpty()) {
+      Unit unit = worklist.poll();
+      int before = depthsBefore.get(unit);
+      int after = Math.max(0, Math.min(MAX_DEPTH, before + change(unit)));
+
+      for (Unit successor : graph.getSuccsOf(unit))
+        propagate(depthsBefore, worklist, successor, after);
+
+      // Statements throwing to a handler did not take effect
+      for (Unit handler : handlers.getOrDefault(unit, Collections.emptyList()))
+        propagate(depthsBefore, worklist, handler, before);
+    }
+
+    // Unreachable statements hold no monitor
+    for (Unit unit : body.getUnits())
+      depthsBefore.putIfAbsent(unit, 0);
+
+    return depthsBefore;
+  }
+
+  private static void propagate(Map<Unit, Integer> depthsBefore, ArrayDeque<Unit> worklist, Unit unit, int depth) {
+    Integer known = depthsBefore.get(unit);
+
+    if (known == null || known < depth) {
+      depthsBefore.put(unit, depth);
+      worklist.add(unit);
+    }
+  }
+
+  /***
+   * Find the handlers each statement may throw to. Traps are tried in order and catch-all traps, such as the ones
+   * releasing the monitor of a synchronized block, stop the search. Monitor exits only throw on unbalanced monitors
+   * and are left out, with statements that never throw.
+   * @param body body to analyse
+   * @return handlers of the statements that may throw
+   */
+  private static Map<Unit, List<Unit>> getHandlers(Body body) {
+    Map<Unit, List<Unit>> handlers = new HashMap<>();
+    Set<Unit> caught = new HashSet<>();
+
+    for (Trap trap : body.getTraps()) {
+      boolean catchAll = trap.getException().getName().equals("java.lang.Throwable");
+
+      for (Iterator<Unit> units = body.getUnits().iterator(trap.getBeginUnit()); units.hasNext(); ) {
+        Unit unit = units.next();
+
+        if (unit == trap.getEndUnit())
+          break;
+
+        if (unit instanceof IdentityStmt || unit instanceof GotoStmt || unit instanceof NopStmt ||
+                unit instanceof JExitMonitorStmt || caught.contains(unit))
+          continue;
+
+        handlers.computeIfAbsent(unit, u -> new ArrayList<>()).add(trap.getHandlerUnit());
+
+        if (catchAll)
+          caught.add(unit);
+      }
+    }
+
+    return handlers;
+  }
+
+  private static int change(Unit unit) {
+    if (unit instanceof JEnterMonitorStmt)
+      return 1;
+
+    return unit instanceof JExitMonitorStmt ? -1 : 0;
+  }
+}
@@ -2,9 +2,14 @@ package oscar.engine.utils;
 
 import oscar.transformers.noisers.thread.ThreadCreationNoiser;
 import soot.*;
+import soot.jimple.AssignStmt;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.Stmt;
 import soot.jimple.internal.JInvokeStmt;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public class JimpleThreadUtils {
   public static boolean isThreadStartOrRunStatement(JInvokeStmt stmt) {
@@ -16,6 +21,61 @@ public class JimpleThreadUtils {
     return List.of("start", "run").contains(methodName) && JimpleThreadUtils.isThreadOrRunnableClass(sootClass);
   }
 
+  /***
+   * Check if the statement launches a virtual thread, whose first argument is the launched task. Virtual threads are
+   * launched with Thread.startVirtualThread, with a virtual thread builder (Thread.ofVirtual().start), or by
+   * submitting to an executor from Executors.newVirtualThreadPerTaskExecutor. Builders and executors held in a generic
+   * type are only recognised when the body assigns them from a virtual builder or executor.
+   * @param stmt statement to check, must contain an invoke expression
+   * @param body body containing the statement
+   * @return true if the statement launches a virtual thread
+   */
+  public static boolean isVirtualThreadLaunch(Stmt stmt, Body body) {
+    InvokeExpr expr = stmt.getInvokeExpr();
+    SootMethodRef ref = expr.getMethodRef();
+    String methodName = ref.getName();
+    String className = ref.getDeclaringClass().getName();
+
+    if (methodName.equals("startVirtualThread"))
+      return className.equals("java.lang.Thread");
+
+    if (expr.getArgCount() == 0 || !(expr instanceof InstanceInvokeExpr))
+      return false;
+
+    Value base = ((InstanceInvokeExpr) expr).getBase();
+
+    if (methodName.equals("start") && expr.getArgCount() == 1) {
+      if (className.equals("java.lang.Thread$Builder$OfVirtual"))
+        return true;
+
+      return className.equals("java.lang.Thread$Builder") &&
+          isAssignedFrom(base, body, v -> v.getType().toString().equals("java.lang.Thread$Builder$OfVirtual"));
+    }
+
+    if (methodName.equals("submit") || methodName.equals("execute"))
+      return isAssignedFrom(base, body, v -> v instanceof InvokeExpr &&
+          ((InvokeExpr) v).getMethodRef().getName().equals("newVirtualThreadPerTaskExecutor") &&
+          ((InvokeExpr) v).getMethodRef().getDeclaringClass().getName().equals("java.util.concurrent.Executors"));
+
+    return false;
+  }
+
+  /***
+   * Check if the body assigns the local a value matching the predicate
+   * @param local local to check
+   * @param body body in which the local is assigned
+   * @param predicate predicate on the assigned value
+   * @return true if any assignment of the local matches
+   */
+  private static boolean isAssignedFrom(Value local, Body body, Predicate<Value> predicate) {
+    for (Unit unit : body.getUnits())
+      if (unit instanceof AssignStmt && ((AssignStmt) unit).getLeftOp() == local &&
+          predicate.test(((AssignStmt) unit).getRightOp()))
+        return true;
+
+    return false;
+  }
+
   /***
    * Recursively check if the class is a thread class, extends a thread class or implements a Runnable interface
    * @param sootClass class that will be checked recursively
@@ -0,0 +1,64 @@
+package oscar.engine.utils;
+
+import oscar.controller.noise.NoiseLocation;
+import oscar.controller.noise.NoiseSite;
+import soot.SootMethod;
+import soot.Unit;
+import soot.tagkit.BytecodeOffsetTag;
+import soot.tagkit.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out dense noise site ids during instrumentation. Body transformers may run concurrently,
+ * so ids are assigned atomically and the registered sites are kept in a concurrent queue.
+ */
+public final class NoiseSiteRegistry {
+  private static final AtomicInteger nextId = new AtomicInteger(0);
+  private static final ConcurrentLinkedQueue<NoiseSite> sites = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Register a new noise site
+   *
+   * @param location noise location type
+   * @param method   method being instrumented
+   * @param anchor   original statement the noise is placed around, may be null
+   * @return the id assigned to the site
+   */
+  public static int register(NoiseLocation location, SootMethod method, Unit anchor) {
+    int id = nextId.getAndIncrement();
+
+    sites.add(new NoiseSite(
+        id,
+        location,
+        method.getDeclaringClass().getName(),
+        method.getSubSignature(),
+        anchor == null ? -1 : anchor.getJavaSourceStartLineNumber(),
+        getBytecodeOffset(anchor),
+        anchor == null ? method.isSynchronized() : JimpleMonitorUtils.isInsideMonitor(method, anchor)
+    ));
+
+    return id;
+  }
+
+  public static List<NoiseSite> getSites() {
+    return new ArrayList<>(sites);
+  }
+
+  public static void reset() {
+    nextId.set(0);
+    sites.clear();
+  }
+
+  private static int getBytecodeOffset(Unit anchor) {
+    if (anchor == null)
+      return -1;
+
+    Tag tag = anchor.getTag("BytecodeOffsetTag");
+
+    return tag instanceof BytecodeOffsetTag ? ((BytecodeOffsetTag) tag).getBytecodeOffset() : -1;
+  }
+}
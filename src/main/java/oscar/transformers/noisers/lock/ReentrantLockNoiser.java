@@ -26,9 +26,9 @@ public final class ReentrantLockNoiser extends JimpleTransformer {
       if (getInvokeExprMethodName(lockCall).equals("lock"))
         bodyBox.body()
             .getUnits()
-            .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_REENTRANT_LOCK_LOCK), lockCall);
+            .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_REENTRANT_LOCK_LOCK, lockCall), lockCall);
       else if (getInvokeExprMethodName(lockCall).equals("unlock")) {
-        List<Unit> units = bodyBox.generator().Statement.noise(NoiseLocation.AFTER_REENTRANT_LOCK_UNLOCK);
+        List<Unit> units = bodyBox.generator().Statement.noise(NoiseLocation.AFTER_REENTRANT_LOCK_UNLOCK, lockCall);
         bodyBox.body().getUnits().insertAfter(units, lockCall);
       } else
         throw new RuntimeException("Invalid reentrant lock call statement");
@@ -42,7 +42,7 @@ public final class ClassInitializationNoiser extends JimpleTransformer {
       if (unit instanceof JInvokeStmt && ((JInvokeStmt) unit).getInvokeExpr() instanceof SpecialInvokeExpr) {
         bodyBox.body()
                .getUnits()
-               .insertAfter(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_CLASS_INITIALIZATION), unit);
+               .insertAfter(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_CLASS_INITIALIZATION, unit), unit);
         break;
       }
   }
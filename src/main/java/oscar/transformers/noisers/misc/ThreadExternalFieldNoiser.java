@@ -30,11 +30,11 @@ public final class ThreadExternalFieldNoiser extends JimpleTransformer {
     for (JAssignStmt stmt :  getOutsideVariableAccess(bodyBox, methodClass)) {
       bodyBox.body()
              .getUnits()
-             .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_THREAD_EXTERNAL_FIELD_REF), stmt);
+             .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_THREAD_EXTERNAL_FIELD_REF, stmt), stmt);
 
       bodyBox.body()
              .getUnits()
-             .insertAfter(bodyBox.generator().Statement.noise(NoiseLocation.AFTER_THREAD_EXTERNAL_FIELD_REF), stmt);
+             .insertAfter(bodyBox.generator().Statement.noise(NoiseLocation.AFTER_THREAD_EXTERNAL_FIELD_REF, stmt), stmt);
     }
   }
 
@@ -92,11 +92,11 @@ public class SharedVariableNoiser extends JimpleTransformer {
 
       bodyBox.body()
              .getUnits()
-             .insertBefore(bodyBox.generator().Statement.noise(beforeNoiseHeuristic), assignment);
+             .insertBefore(bodyBox.generator().Statement.noise(beforeNoiseHeuristic, assignment), assignment);
 
       bodyBox.body()
              .getUnits()
-             .insertAfter(bodyBox.generator().Statement.noise(afterNoiseHeuristic), assignment);
+             .insertAfter(bodyBox.generator().Statement.noise(afterNoiseHeuristic, assignment), assignment);
     }
 
   }
@@ -25,9 +25,9 @@ public final class SynchronizedBlockNoiser extends JimpleTransformer {
       if (monitorCall instanceof JEnterMonitorStmt)
         bodyBox.body()
                .getUnits()
-               .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_SYNC_BLOCK), monitorCall);
+               .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_SYNC_BLOCK, monitorCall), monitorCall);
       else if (monitorCall instanceof JExitMonitorStmt) {
-        List<Unit> units = bodyBox.generator().Statement.noise(NoiseLocation.AFTER_SYNC_BLOCK);
+        List<Unit> units = bodyBox.generator().Statement.noise(NoiseLocation.AFTER_SYNC_BLOCK, monitorCall);
         bodyBox.body().getUnits().insertAfter(units, monitorCall);
       } else
         throw new RuntimeException("Invalid monitor call statement");
@@ -21,8 +21,8 @@ public final class SynchronizedMethodCallNoiser extends JimpleTransformer {
 
     // Create statement to insert sleep noise before and after sync blocks
     for (Unit invocation : syncMethodInvocations) {
-      body.body().getUnits().insertBefore(body.generator().Statement.noise(NoiseLocation.BEFORE_SYNC_METHOD_CALL), invocation);
-      body.body().getUnits().insertAfter(body.generator().Statement.noise(NoiseLocation.AFTER_SYNC_METHOD_CALL), invocation);
+      body.body().getUnits().insertBefore(body.generator().Statement.noise(NoiseLocation.BEFORE_SYNC_METHOD_CALL, invocation), invocation);
+      body.body().getUnits().insertAfter(body.generator().Statement.noise(NoiseLocation.AFTER_SYNC_METHOD_CALL, invocation), invocation);
     }
   }
 
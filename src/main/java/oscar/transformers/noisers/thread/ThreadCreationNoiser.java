@@ -5,7 +5,9 @@ import oscar.engine.body.JimpleBodyBox;
 import oscar.engine.utils.JimpleThreadUtils;
 import oscar.transformers.JimpleSceneTransformer;
 import soot.*;
+import soot.jimple.InvokeExpr;
 import soot.jimple.JimpleBody;
+import soot.jimple.Stmt;
 import soot.jimple.internal.*;
 import soot.tagkit.StringConstantValueTag;
 
@@ -13,6 +15,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class ThreadCreationNoiser extends JimpleSceneTransformer {
   private static final StringConstantValueTag THREAD_LAUNCH_NOISED = new StringConstantValueTag("THREAD_LAUNCH_NOISED");
@@ -38,17 +41,17 @@ public final class ThreadCreationNoiser extends JimpleSceneTransformer {
     runnableClasses.forEach(this::noiseThreadRoutine);
 
     // Get all thread start and run statements and then wrap them for noising
-    Set<JInvokeStmt> invokeStmts = getStartAndRunStatements(bodyBox.body());
+    Set<Stmt> invokeStmts = getStartAndRunStatements(bodyBox.body());
 
     //Replace original calls with calls to wrapped method
-    for (JInvokeStmt stmt : invokeStmts) {
+    for (Stmt stmt : invokeStmts) {
       bodyBox.body()
              .getUnits()
-             .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_THREAD_LAUNCH), stmt);
+             .insertBefore(bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_THREAD_LAUNCH, stmt), stmt);
 
       bodyBox.body()
              .getUnits()
-             .insertAfter(bodyBox.generator().Statement.noise(NoiseLocation.AFTER_THREAD_LAUNCH), stmt);
+             .insertAfter(bodyBox.generator().Statement.noise(NoiseLocation.AFTER_THREAD_LAUNCH, stmt), stmt);
     }
   }
 
@@ -61,8 +64,9 @@ public final class ThreadCreationNoiser extends JimpleSceneTransformer {
       return;
 
     // Insert noise and signal statements after first (identity statement)
-    List<Unit> noiseStmts = bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_THREAD_ROUTINE);
-    bodyBox.body().getUnits().insertBefore(noiseStmts, bodyBox.body().getFirstNonIdentityStmt());
+    Unit firstStmt = bodyBox.body().getFirstNonIdentityStmt();
+    List<Unit> noiseStmts = bodyBox.generator().Statement.noise(NoiseLocation.BEFORE_THREAD_ROUTINE, firstStmt);
+    bodyBox.body().getUnits().insertBefore(noiseStmts, firstStmt);
 
     // Add instrumented tag and validate body
     bodyBox.body().addTag(THREAD_LAUNCH_NOISED);
@@ -70,32 +74,56 @@ public final class ThreadCreationNoiser extends JimpleSceneTransformer {
     bodyBox.body().validate();
   }
 
-  public static Set<JInvokeStmt> getStartAndRunStatements(JimpleBody body) {
+  public static Set<Stmt> getStartAndRunStatements(JimpleBody body) {
+    Stream<Stmt> startAndRunStmts = body.getUnits()
+                                        .stream()
+                                        .filter(JInvokeStmt.class::isInstance)
+                                        .map(JInvokeStmt.class::cast)
+                                        .filter(s -> s.getInvokeExpr() instanceof JVirtualInvokeExpr)
+                                        .filter(JimpleThreadUtils::isThreadStartOrRunStatement)
+                                        .map(Stmt.class::cast);
+
+    return Stream.concat(startAndRunStmts, getVirtualThreadLaunchStatements(body))
+                 .collect(Collectors.toSet());
+  }
+
+  /**
+   * Get statements launching virtual threads, their result may be assigned to a local
+   *
+   * @param body jimple body from which to extract all virtual thread launches
+   * @return stream of launching statements
+   */
+  private static Stream<Stmt> getVirtualThreadLaunchStatements(JimpleBody body) {
     return body.getUnits()
                .stream()
-               .filter(JInvokeStmt.class::isInstance)
-               .map(JInvokeStmt.class::cast)
-               .filter(s -> s.getInvokeExpr() instanceof JVirtualInvokeExpr)
-               .filter(JimpleThreadUtils::isThreadStartOrRunStatement)
-               .collect(Collectors.toSet());
+               .filter(Stmt.class::isInstance)
+               .map(Stmt.class::cast)
+               .filter(Stmt::containsInvokeExpr)
+               .filter(s -> JimpleThreadUtils.isVirtualThreadLaunch(s, body));
   }
 
   /**
-   * Get runnable classes that are inserted as parameter into initialized threads
+   * Get runnable classes that are inserted as parameter into initialized threads or launched virtual threads
    *
    * @param body jimple body from which to extract all runnable classes
    * @return set of runnable classes
    */
   private static Set<SootClass> getRunnableClasses(JimpleBody body) {
-    return body.getUnits()
-               .stream()
-               .filter(JInvokeStmt.class::isInstance)
-               .map(JInvokeStmt.class::cast)
-               .map(JInvokeStmt::getInvokeExpr)
-               .filter(JSpecialInvokeExpr.class::isInstance)
-               .map(JSpecialInvokeExpr.class::cast)
-               .filter(e -> e.getMethod().getDeclaringClass().getName().equals("java.lang.Thread"))
-               .filter(e -> e.getMethod().getName().equals("<init>"))
+    Stream<InvokeExpr> threadInits = body.getUnits()
+                                         .stream()
+                                         .filter(JInvokeStmt.class::isInstance)
+                                         .map(JInvokeStmt.class::cast)
+                                         .map(JInvokeStmt::getInvokeExpr)
+                                         .filter(JSpecialInvokeExpr.class::isInstance)
+                                         .map(JSpecialInvokeExpr.class::cast)
+                                         .filter(e -> e.getMethod().getDeclaringClass().getName().equals("java.lang.Thread"))
+                                         .filter(e -> e.getMethod().getName().equals("<init>"))
+                                         .map(InvokeExpr.class::cast);
+
+    // Virtual threads are launched with the runnable as first argument as well
+    Stream<InvokeExpr> virtualThreadLaunches = getVirtualThreadLaunchStatements(body).map(Stmt::getInvokeExpr);
+
+    return Stream.concat(threadInits, virtualThreadLaunches)
                .filter(e -> e.getArgCount() != 0)
                .map(e -> e.getArg(0))
                .filter(JimpleLocal.class::isInstance)
@@ -0,0 +1,122 @@
+package oscar.controller.util.output;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import oscar.controller.Controller;
+import oscar.controller.noise.NoiseLocation;
+
+/**
+ * Output emitting the trace as custom JDK Flight Recorder events, so it can be correlated with GC pauses,
+ * safepoints, I/O and lock events of the same recording. Events carry their thread and start time, are buffered
+ * thread-locally by JFR and are only written while a recording is running, e.g. started with
+ * {@code -XX:StartFlightRecording}. The Flight Recorder API needs Java 11, so this output is compiled separately and
+ * only loaded by name.
+ */
+public class JfrOutput implements ControllerOutput {
+  @Override
+  public void writeHeader(long seed) {
+    RunEvent event = new RunEvent();
+
+    if (event.isEnabled()) {
+      event.seed = seed;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void write(long threadID, int siteID, boolean virtual) {
+    SiteEvent event = new SiteEvent();
+
+    if (event.isEnabled()) {
+      event.siteId = siteID;
+      setLocation(event, siteID);
+      event.virtualThread = virtual;
+      event.commit();
+    }
+  }
+
+  @Override
+  public boolean tracesNoise() {
+    return true;
+  }
+
+  @Override
+  public Object beginNoise(long threadID, int siteID, boolean virtual) {
+    NoiseEvent event = new NoiseEvent();
+
+    if (!event.isEnabled())
+      return null;
+
+    // The event's duration is the time the thread was held by the noise
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void writeNoise(Object noise, long threadID, int siteID, boolean virtual, long nanos) {
+    if (noise == null)
+      return;
+
+    NoiseEvent event = (NoiseEvent) noise;
+    event.siteId = siteID;
+    setLocation(event, siteID);
+    event.virtualThread = virtual;
+    event.commit();
+  }
+
+  @Override
+  public void terminate() {
+  }
+
+  private static void setLocation(OscarSiteEvent event, int siteID) {
+    NoiseLocation location = Controller.getSiteLocation(siteID);
+
+    if (location != null) {
+      event.location = location.name();
+      event.category = location.getCategory().name();
+    }
+  }
+
+  @Name("oscar.Run")
+  @Label("OSCAR Run")
+  @Category("OSCAR")
+  @Description("Noise run started")
+  @StackTrace(false)
+  static class RunEvent extends Event {
+    @Label("Seed")
+    long seed;
+  }
+
+  // Fields shared by the site events, abstract event classes are not registered themselves
+  @Category("OSCAR")
+  @StackTrace(false)
+  abstract static class OscarSiteEvent extends Event {
+    @Label("Site")
+    int siteId;
+
+    @Label("Location")
+    String location;
+
+    @Label("Category")
+    String category;
+
+    @Label("Virtual Thread")
+    boolean virtualThread;
+  }
+
+  @Name("oscar.NoiseSite")
+  @Label("OSCAR Noise Site")
+  @Description("Noise site reached by a thread")
+  static class SiteEvent extends OscarSiteEvent {
+  }
+
+  @Name("oscar.Noise")
+  @Label("OSCAR Noise")
+  @Description("Noise injected at a site")
+  static class NoiseEvent extends OscarSiteEvent {
+  }
+}
@@ -0,0 +1,55 @@
+package oscar.controller;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CoverageFeedbackTest {
+  // More site pairs than the table holds
+  private static final int SLOTS = 16;
+  private static final int CAPACITY = 64;
+
+  @Test
+  public void repeatedPairHalvesProbabilityPerDoubling() {
+    CoverageFeedback feedback = new CoverageFeedback(SLOTS, CAPACITY);
+    ControllerThreadState thread = ControllerThreadState.current();
+
+    assertEquals(0, feedback.hit(thread, 1, otherThreadEvent(thread, 0)));
+    assertEquals(1, feedback.hit(thread, 1, otherThreadEvent(thread, 0)));
+    assertEquals(1, feedback.hit(thread, 1, otherThreadEvent(thread, 0)));
+    assertEquals(2, feedback.hit(thread, 1, otherThreadEvent(thread, 0)));
+  }
+
+  @Test
+  public void sameThreadHitsAreNotRecorded() {
+    CoverageFeedback feedback = new CoverageFeedback(SLOTS, CAPACITY);
+    ControllerThreadState thread = ControllerThreadState.current();
+    long sameThreadEvent = ((long) thread.ordinal << Integer.SIZE) | 0;
+
+    feedback.hit(thread, 1, sameThreadEvent);
+    feedback.hit(thread, 1, sameThreadEvent);
+
+    assertEquals(0, feedback.getPairCount());
+  }
+
+  @Test
+  public void newPairKeepsFullProbabilityOnceSaturated() {
+    CoverageFeedback feedback = new CoverageFeedback(SLOTS, CAPACITY);
+    ControllerThreadState thread = ControllerThreadState.current();
+
+    // Fill every entry, colliding pairs are probed into the free ones
+    for (int pair = 0; pair < CAPACITY; pair++)
+      feedback.hit(thread, pair % SLOTS, otherThreadEvent(thread, pair / SLOTS));
+
+    assertEquals(CAPACITY, feedback.getPairCount());
+
+    // A recorded pair seen twice is biased, a pair that no longer fits is not
+    assertEquals(1, feedback.hit(thread, 0, otherThreadEvent(thread, 0)));
+    assertEquals(0, feedback.hit(thread, 1, otherThreadEvent(thread, SLOTS - 1)));
+    assertEquals(CAPACITY, feedback.getPairCount());
+  }
+
+  private static long otherThreadEvent(ControllerThreadState thread, int slot) {
+    return ((long) (thread.ordinal + 1) << Integer.SIZE) | slot;
+  }
+}
@@ -0,0 +1,91 @@
+package oscar.controller;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DecisionReplayTest {
+  // More records than a thread buffers, so some are appended before the log is closed
+  private static final int RECORDS = 5000;
+
+  @Test
+  public void replayReturnsRecordedNoise() throws InterruptedException {
+    ControllerThreadState thread = newThreadState();
+    DecisionRecorder recorder = new DecisionRecorder(42);
+
+    for (int hit = 0; hit < RECORDS; hit++)
+      recorder.record(thread, hit % 3, hit, hit * 10L);
+
+    File file = recorder.close();
+
+    try {
+      DecisionReplay replay = new DecisionReplay(file.getPath());
+
+      assertEquals(42, replay.getSeed());
+      assertEquals(RECORDS, replay.size());
+
+      for (int hit = 0; hit < RECORDS; hit++)
+        assertEquals(hit * 10L, replay.get(thread, hit % 3, hit));
+
+      // Hits of another site, or past the recorded ones, get no noise
+      assertEquals(-1, replay.get(thread, 1, 0));
+      assertEquals(-1, replay.get(thread, 0, RECORDS));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void incompleteRecordIsIgnored() throws IOException, InterruptedException {
+    ControllerThreadState thread = newThreadState();
+    DecisionRecorder recorder = new DecisionRecorder(7);
+    recorder.record(thread, 1, 0, 100);
+    File file = recorder.close();
+
+    try {
+      // Left by a run killed while appending a record
+      try (FileOutputStream output = new FileOutputStream(file, true)) {
+        output.write(new byte[DecisionLog.RECORD_SIZE - 1]);
+      }
+
+      DecisionReplay replay = new DecisionReplay(file.getPath());
+
+      assertEquals(1, replay.size());
+      assertEquals(100, replay.get(thread, 1, 0));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void otherFilesAreRejected() throws IOException {
+    File file = File.createTempFile("oscar_decisions", ".bin");
+
+    try {
+      try (FileOutputStream output = new FileOutputStream(file)) {
+        output.write(new byte[DecisionLog.HEADER_SIZE]);
+      }
+
+      new DecisionReplay(file.getPath());
+      fail("Expected the file to be rejected");
+    } catch (RuntimeException e) {
+      assertEquals("File '" + file.getPath() + "' is not an OSCAR decision log.", e.getMessage());
+    } finally {
+      file.delete();
+    }
+  }
+
+  // Threads buffer their records for a single recorder, so every test records as a thread of its own
+  private static ControllerThreadState newThreadState() throws InterruptedException {
+    ControllerThreadState[] state = new ControllerThreadState[1];
+    Thread thread = new Thread(() -> state[0] = ControllerThreadState.current());
+    thread.start();
+    thread.join();
+    return state[0];
+  }
+}
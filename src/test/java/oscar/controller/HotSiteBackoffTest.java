@@ -0,0 +1,76 @@
+package oscar.controller;
+
+import oscar.controller.noise.NoiseBackoffScope;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HotSiteBackoffTest {
+  private static final int SLOTS = 4;
+  private static final long THRESHOLD = 4;
+
+  @Test
+  public void levelGrowsEveryTimeHitsDouble() throws InterruptedException {
+    HotSiteBackoff backoff = new HotSiteBackoff(NoiseBackoffScope.SITE, THRESHOLD, 0, SLOTS);
+    ControllerThreadState thread = newThreadState();
+    int[] expected = {0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 2, 3};
+
+    for (int hit = 0; hit < expected.length; hit++)
+      assertEquals(expected[hit], backoff.hit(thread, 0));
+
+    // Other sites are counted apart
+    assertEquals(0, backoff.hit(thread, 1));
+  }
+
+  @Test
+  public void siteScopeCountsEveryThread() throws InterruptedException {
+    HotSiteBackoff backoff = new HotSiteBackoff(NoiseBackoffScope.SITE, THRESHOLD, 0, SLOTS);
+    ControllerThreadState first = newThreadState();
+
+    for (int hit = 0; hit < THRESHOLD; hit++)
+      backoff.hit(first, 0);
+
+    assertEquals(1, backoff.hit(newThreadState(), 0));
+  }
+
+  @Test
+  public void threadScopeCountsEachThread() throws InterruptedException {
+    HotSiteBackoff backoff = new HotSiteBackoff(NoiseBackoffScope.THREAD, THRESHOLD, 0, SLOTS);
+    ControllerThreadState first = newThreadState();
+
+    for (int hit = 0; hit < THRESHOLD; hit++)
+      backoff.hit(first, 0);
+
+    assertEquals(1, backoff.hit(first, 0));
+    assertEquals(0, backoff.hit(newThreadState(), 0));
+  }
+
+  @Test
+  public void windowResetsHits() throws InterruptedException {
+    long windowMillis = 100;
+    HotSiteBackoff site = new HotSiteBackoff(NoiseBackoffScope.SITE, THRESHOLD, windowMillis, SLOTS);
+    HotSiteBackoff thread = new HotSiteBackoff(NoiseBackoffScope.THREAD, THRESHOLD, windowMillis, SLOTS);
+    ControllerThreadState state = newThreadState();
+
+    for (int hit = 0; hit < THRESHOLD; hit++) {
+      site.hit(state, 0);
+      thread.hit(state, 0);
+    }
+
+    assertEquals(1, site.hit(state, 0));
+    assertEquals(1, thread.hit(state, 0));
+
+    Thread.sleep(2 * windowMillis);
+
+    assertEquals(0, site.hit(state, 0));
+    assertEquals(0, thread.hit(state, 0));
+  }
+
+  private static ControllerThreadState newThreadState() throws InterruptedException {
+    ControllerThreadState[] state = new ControllerThreadState[1];
+    Thread thread = new Thread(() -> state[0] = ControllerThreadState.current());
+    thread.start();
+    thread.join();
+    return state[0];
+  }
+}
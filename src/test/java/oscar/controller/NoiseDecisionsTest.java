@@ -0,0 +1,80 @@
+package oscar.controller;
+
+import oscar.controller.noise.NoiseDistribution;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NoiseDecisionsTest {
+  private static final int SITE = 7;
+  private static final int DECISIONS = 16;
+
+  // Hits are counted per thread and slot, so every sequence is drawn in a slot of its own to start from hit 0
+  private static int nextSlot = 0;
+
+  @Test
+  public void sameSeedRepeatsDecisions() {
+    NoiseDecisions first = new NoiseDecisions(42, NoiseDistribution.UNIFORM, 0);
+    NoiseDecisions second = new NoiseDecisions(42, NoiseDistribution.UNIFORM, 0);
+
+    assertArrayEquals(draw(first, SITE), draw(second, SITE));
+  }
+
+  @Test
+  public void otherSeedChangesDecisions() {
+    NoiseDecisions first = new NoiseDecisions(42, NoiseDistribution.UNIFORM, 0);
+    NoiseDecisions second = new NoiseDecisions(43, NoiseDistribution.UNIFORM, 0);
+
+    assertFalse(Arrays.equals(draw(first, SITE), draw(second, SITE)));
+  }
+
+  @Test
+  public void decisionsDependOnSiteAndHit() {
+    NoiseDecisions decisions = new NoiseDecisions(42, NoiseDistribution.UNIFORM, 0);
+    long[] site = draw(decisions, SITE);
+    long[] otherSite = draw(decisions, SITE + 1);
+
+    assertNotEquals(site[0], site[1]);
+    assertFalse(Arrays.equals(site, otherSite));
+  }
+
+  @Test
+  public void lastHitIsIndexOfLastDecision() {
+    NoiseDecisions decisions = new NoiseDecisions(42, NoiseDistribution.UNIFORM, 0);
+    ControllerThreadState thread = ControllerThreadState.current();
+    int slot = nextSlot++;
+
+    decisions.next(thread, SITE, slot);
+    decisions.next(thread, SITE, slot);
+    decisions.next(thread, SITE, slot);
+
+    assertEquals(2, NoiseDecisions.lastHit(thread, slot));
+  }
+
+  @Test
+  public void intensityStaysInRange() {
+    NoiseDecisions decisions = new NoiseDecisions(42, NoiseDistribution.EXPONENTIAL, 0.1);
+
+    for (long decision : draw(decisions, SITE)) {
+      double intensity = decisions.intensity(decision);
+      assertTrue(intensity >= 0 && intensity < 1);
+    }
+  }
+
+  private static long[] draw(NoiseDecisions decisions, int siteID) {
+    ControllerThreadState thread = ControllerThreadState.current();
+    int slot = nextSlot++;
+    long[] drawn = new long[DECISIONS];
+
+    for (int i = 0; i < DECISIONS; i++)
+      drawn[i] = decisions.next(thread, siteID, slot);
+
+    return drawn;
+  }
+}
@@ -0,0 +1,68 @@
+package oscar.controller;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NoiseGovernorTest {
+  // One millisecond of delay per second refills a microsecond every millisecond, negligible while a test runs
+  private static final long BUDGET = 1_000_000;
+  private static final long DELAY = 600_000;
+
+  @Test
+  public void unlimitedBudgetsAllowAnyDelay() throws InterruptedException {
+    NoiseGovernor governor = new NoiseGovernor(0, 0);
+    ControllerThreadState thread = newThreadState();
+
+    for (int i = 0; i < 100; i++)
+      assertTrue(governor.tryAcquire(thread, 1_000_000_000));
+  }
+
+  @Test
+  public void threadBudgetLimitsEachThread() throws InterruptedException {
+    NoiseGovernor governor = new NoiseGovernor(0, BUDGET);
+    ControllerThreadState first = newThreadState();
+    ControllerThreadState second = newThreadState();
+
+    assertTrue(governor.tryAcquire(first, DELAY));
+    assertFalse(governor.tryAcquire(first, DELAY));
+
+    // Refused delays are not charged, and other threads have budgets of their own
+    assertTrue(governor.tryAcquire(first, BUDGET - DELAY));
+    assertTrue(governor.tryAcquire(second, DELAY));
+  }
+
+  @Test
+  public void globalBudgetIsShared() throws InterruptedException {
+    NoiseGovernor governor = new NoiseGovernor(BUDGET, 0);
+    ControllerThreadState first = newThreadState();
+    ControllerThreadState second = newThreadState();
+
+    assertTrue(governor.tryAcquire(first, DELAY));
+    assertFalse(governor.tryAcquire(second, DELAY));
+    assertTrue(governor.tryAcquire(second, BUDGET - DELAY));
+  }
+
+  @Test
+  public void globalRefusalDoesNotChargeThread() throws InterruptedException {
+    NoiseGovernor governor = new NoiseGovernor(BUDGET, BUDGET);
+    ControllerThreadState first = newThreadState();
+    ControllerThreadState second = newThreadState();
+
+    assertTrue(governor.tryAcquire(first, DELAY));
+    assertFalse(governor.tryAcquire(second, DELAY));
+
+    // The second thread's own budget is still full
+    NoiseGovernor threadOnly = new NoiseGovernor(0, BUDGET);
+    assertTrue(threadOnly.tryAcquire(second, BUDGET));
+  }
+
+  private static ControllerThreadState newThreadState() throws InterruptedException {
+    ControllerThreadState[] state = new ControllerThreadState[1];
+    Thread thread = new Thread(() -> state[0] = ControllerThreadState.current());
+    thread.start();
+    thread.join();
+    return state[0];
+  }
+}
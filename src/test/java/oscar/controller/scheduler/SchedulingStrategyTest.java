@@ -0,0 +1,88 @@
+package oscar.controller.scheduler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SchedulingStrategyTest {
+  private static final int[] CANDIDATES = {1, 3, 5};
+
+  @Test
+  public void roundRobinReleasesThreadsInTurn() {
+    RoundRobinStrategy strategy = new RoundRobinStrategy();
+
+    assertEquals(0, strategy.pick(CANDIDATES, 3, -1));
+    assertEquals(1, strategy.pick(CANDIDATES, 3, 1));
+    assertEquals(2, strategy.pick(CANDIDATES, 3, 3));
+    assertEquals(0, strategy.pick(CANDIDATES, 3, 5));
+
+    // Continues after the previous thread even if it is no longer waiting
+    assertEquals(1, strategy.pick(new int[]{2, 4}, 2, 3));
+  }
+
+  @Test
+  public void randomWalkRepeatsWithSeed() {
+    RandomWalkStrategy first = new RandomWalkStrategy(42);
+    RandomWalkStrategy second = new RandomWalkStrategy(42);
+
+    for (int i = 0; i < 100; i++) {
+      int picked = first.pick(CANDIDATES, 3, 1);
+
+      assertTrue(picked >= 0 && picked < 3);
+      assertEquals(picked, second.pick(CANDIDATES, 3, 1));
+    }
+  }
+
+  @Test
+  public void boundedPreemptionSwitchesAtMostBoundTimes() {
+    BoundedPreemptionStrategy strategy = new BoundedPreemptionStrategy(42, 2);
+    int preemptions = 0;
+
+    for (int i = 0; i < 100; i++)
+      if (strategy.pick(CANDIDATES, 3, 3) != 1)
+        preemptions++;
+
+    assertEquals(2, preemptions);
+  }
+
+  @Test
+  public void boundedPreemptionIgnoresStalledThreads() {
+    BoundedPreemptionStrategy strategy = new BoundedPreemptionStrategy(42, 0);
+
+    // Without a previous thread any candidate can run, and it is not a preemption
+    for (int i = 0; i < 100; i++) {
+      int picked = strategy.pick(CANDIDATES, 3, -1);
+      assertTrue(picked >= 0 && picked < 3);
+    }
+
+    for (int i = 0; i < 100; i++)
+      assertEquals(2, strategy.pick(CANDIDATES, 3, 5));
+  }
+
+  @Test
+  public void fromStringSelectsStrategies() {
+    assertTrue(SchedulingStrategy.fromString("random", 0, 0) instanceof RandomWalkStrategy);
+    assertTrue(SchedulingStrategy.fromString("RoundRobin", 0, 0) instanceof RoundRobinStrategy);
+    assertTrue(SchedulingStrategy.fromString("bounded", 0, 0) instanceof BoundedPreemptionStrategy);
+    assertTrue(SchedulingStrategy.fromString(RoundRobinStrategy.class.getName(), 0, 0) instanceof RoundRobinStrategy);
+  }
+
+  @Test
+  public void fromStringRejectsOtherClasses() {
+    try {
+      SchedulingStrategy.fromString(String.class.getName(), 0, 0);
+      fail("Expected the class to be rejected");
+    } catch (RuntimeException e) {
+      assertEquals("Class 'java.lang.String' is not a scheduling strategy.", e.getMessage());
+    }
+
+    try {
+      SchedulingStrategy.fromString("missing", 0, 0);
+      fail("Expected the name to be rejected");
+    } catch (RuntimeException e) {
+      assertEquals("No scheduling strategy matches 'missing'.", e.getMessage());
+    }
+  }
+}
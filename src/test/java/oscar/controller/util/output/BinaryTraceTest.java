@@ -0,0 +1,77 @@
+package oscar.controller.util.output;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinaryTraceTest {
+  @Test
+  public void decodeOrdersEventsBySequence() throws IOException {
+    ByteBuffer events = ByteBuffer.allocate(6 * BinaryTrace.EVENT_SIZE + 5).order(ByteOrder.LITTLE_ENDIAN);
+    BinaryTrace.putEvent(events, 77, 0, BinaryTrace.THREAD_RECORD);
+    BinaryTrace.putEvent(events, 88, 1, BinaryTrace.VIRTUAL_THREAD_RECORD);
+    BinaryTrace.putEvent(events, 3, 0, 5);
+    BinaryTrace.putEvent(events, 1, 1, 6);
+    // Never written slot, then an event and an incomplete trailing event
+    BinaryTrace.putEvent(events, 0, 0, 0);
+    BinaryTrace.putEvent(events, 2, 0, 7);
+    events.put(new byte[5]);
+    events.flip();
+
+    assertEquals("# seed 9\n88 6 v\n77 7\n77 5\n", decode(BinaryTrace.header(9), events));
+  }
+
+  @Test
+  public void decodeReadsUnseededVersions() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(BinaryTrace.MAGIC.length + 2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(BinaryTrace.MAGIC).putInt(2).putInt(BinaryTrace.EVENT_SIZE);
+    header.flip();
+
+    ByteBuffer events = ByteBuffer.allocate(BinaryTrace.EVENT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    BinaryTrace.putEvent(events, 1, 3, 4);
+    events.flip();
+
+    assertEquals("3 4\n", decode(header, events));
+  }
+
+  @Test
+  public void otherFilesAreRejected() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(BinaryTrace.HEADER_SIZE);
+
+    try {
+      decode(header, ByteBuffer.allocate(0));
+      fail("Expected the file to be rejected");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().endsWith("is not an OSCAR binary trace."));
+    }
+  }
+
+  private static String decode(ByteBuffer header, ByteBuffer events) throws IOException {
+    File file = File.createTempFile("oscar_trace", ".bin");
+
+    try {
+      try (FileOutputStream output = new FileOutputStream(file)) {
+        output.getChannel().write(new ByteBuffer[]{header, events});
+      }
+
+      StringWriter text = new StringWriter();
+      try (PrintWriter writer = new PrintWriter(text)) {
+        BinaryTrace.decode(file.getPath(), writer);
+      }
+
+      return text.toString().replace(System.lineSeparator(), "\n");
+    } finally {
+      file.delete();
+    }
+  }
+}
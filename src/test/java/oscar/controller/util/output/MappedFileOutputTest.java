@@ -0,0 +1,64 @@
+package oscar.controller.util.output;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class MappedFileOutputTest {
+  @Test
+  public void terminateTruncatesUnusedRegionTail() throws IOException, InterruptedException {
+    MappedFileOutput output = new MappedFileOutput();
+    File file = new File(output.getFilepath());
+
+    try {
+      output.writeHeader(5);
+      output.write(0, 1, false);
+      output.write(0, 2, false);
+
+      Thread other = new Thread(() -> output.write(0, 3, false));
+      other.start();
+      other.join();
+
+      output.terminate();
+
+      // Two thread records and three events
+      assertEquals(BinaryTrace.HEADER_SIZE + 5 * BinaryTrace.EVENT_SIZE, file.length());
+
+      long threadID = Thread.currentThread().getId();
+      assertEquals("# seed 5\n" + threadID + " 1\n" + threadID + " 2\n" + other.getId() + " 3\n", decode(file));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void writesAfterTerminateAreDropped() throws IOException {
+    MappedFileOutput output = new MappedFileOutput();
+    File file = new File(output.getFilepath());
+
+    try {
+      output.write(0, 1, false);
+      output.terminate();
+      output.write(0, 2, false);
+
+      assertEquals(BinaryTrace.HEADER_SIZE + 2 * BinaryTrace.EVENT_SIZE, file.length());
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static String decode(File file) throws IOException {
+    StringWriter text = new StringWriter();
+
+    try (PrintWriter writer = new PrintWriter(text)) {
+      BinaryTrace.decode(file.getPath(), writer);
+    }
+
+    return text.toString().replace(System.lineSeparator(), "\n");
+  }
+}